@@ -0,0 +1,48 @@
+package Benchmark;
+
+import Engine.Main.Entity;
+import Engine.System.Component.BaseComponent;
+import Engine.System.Component.Messaging.Message;
+import Engine.System.Logic.LogicComponent;
+
+/**
+ * Logic component doing the least possible work, so that benchmarks measure the engine rather than the game.
+ */
+public class CounterComponent extends BaseComponent implements LogicComponent {
+
+    private long applied = 0;
+
+    private long received = 0;
+
+    public CounterComponent(Entity entity) {
+        super(entity);
+    }
+
+    @Override
+    public void initialize() {
+
+    }
+
+    @Override
+    public void apply() {
+        this.applied++;
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        this.received++;
+    }
+
+    @Override
+    public void Update() {
+
+    }
+
+    public long getApplied() {
+        return this.applied;
+    }
+
+    public long getReceived() {
+        return this.received;
+    }
+}
@@ -0,0 +1,38 @@
+package Benchmark;
+
+import Engine.Main.Entity;
+import Engine.System.Component.BaseComponent;
+import Engine.System.Component.Messaging.Message;
+import Engine.System.Input.Component.KeyboardListener;
+import Engine.System.Input.Component.MouseListener;
+
+/**
+ * Input listener doing the least possible work, so that a scene walks the input system without measuring the game.
+ */
+public class InputCounterComponent extends BaseComponent implements MouseListener, KeyboardListener {
+
+    private long received = 0;
+
+    public InputCounterComponent(Entity entity) {
+        super(entity);
+    }
+
+    @Override
+    public void initialize() {
+
+    }
+
+    @Override
+    public void apply() {
+
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        this.received++;
+    }
+
+    public long getReceived() {
+        return this.received;
+    }
+}
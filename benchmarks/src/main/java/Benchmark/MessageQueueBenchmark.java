@@ -0,0 +1,104 @@
+package Benchmark;
+
+import Engine.System.Component.Messaging.Message;
+import Engine.System.Component.Messaging.MessageQueue;
+import Engine.System.Component.Messaging.Opcodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queueing and dispatch (MessageQueue.dispatch) of one message per entity, either built once by the sender or
+ * obtained from the pool of the queue, and of several rotations per entity, merged or not by the queue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageQueueBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entities;
+
+    @Param({"true", "false"})
+    public boolean coalescing;
+
+    /**
+     * Rotations sent to every entity by repeatedRotations.
+     */
+    private static final int ROTATIONS = 4;
+
+    private SyntheticWorld world;
+
+    private MessageQueue messageQueue;
+
+    private Message[] messages;
+
+    private int[] receivers;
+
+    private int opcode;
+
+    @Setup(Level.Trial)
+    public void createWorld() throws Exception {
+        this.world = new SyntheticWorld(this.entities);
+        // Room for the messages of every entity.
+        this.messageQueue = new MessageQueue(this.world.getWorld().getComponentManager(), this.entities * ROTATIONS);
+        this.messageQueue.setCoalescing(this.coalescing);
+
+        this.opcode = Opcodes.of("count");
+        this.messages = new Message[this.entities];
+        this.receivers = new int[this.entities];
+        for(int i = 0; i < this.entities; i++) {
+            CounterComponent counter = this.world.getCounters().get(i);
+            this.messages[i] = new Message<>(counter.getID(), counter.getID(), this.opcode, null);
+            this.receivers[i] = counter.getID();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void bindWorld() {
+        this.world.bind();
+    }
+
+    @Benchmark
+    public long dispatch() {
+        for(Message message : this.messages) {
+            this.messageQueue.add(message);
+        }
+        this.messageQueue.dispatch();
+        return this.world.getCounters().get(0).getReceived();
+    }
+
+    @Benchmark
+    public long sendPooled() {
+        for(int receiver : this.receivers) {
+            this.messageQueue.send(receiver, receiver, this.opcode, 1);
+        }
+        this.messageQueue.dispatch();
+        return this.world.getCounters().get(0).getReceived();
+    }
+
+    @Benchmark
+    public long repeatedRotations() {
+        for(int receiver : this.receivers) {
+            for(int i = 0; i < ROTATIONS; i++) {
+                this.messageQueue.send(receiver, receiver, Opcodes.ROTATE, 0, 2f, 0);
+            }
+        }
+        this.messageQueue.dispatch();
+        return this.world.getCounters().get(0).getReceived();
+    }
+}
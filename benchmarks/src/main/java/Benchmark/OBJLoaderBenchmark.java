@@ -0,0 +1,47 @@
+package Benchmark;
+
+import Engine.Helper.Loader.OBJLoader;
+import Engine.System.Graphics.Component.Mesh3D;
+import Engine.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of a model of the game (OBJLoader.loadMesh). Meshes are only parsed: nothing is sent to GL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OBJLoaderBenchmark {
+
+    private World world;
+
+    @Setup(Level.Iteration)
+    public void bindWorld() {
+        // Loaded meshes are components: give them a world to take their IDs from, and release them afterwards.
+        if(this.world == null)
+            this.world = new World();
+        this.world.bind();
+    }
+
+    @Benchmark
+    public Mesh3D loadMesh() throws Exception {
+        Mesh3D mesh = OBJLoader.loadMesh("/Game/Models/cube.obj");
+        mesh.releaseID();
+        return mesh;
+    }
+}
@@ -0,0 +1,96 @@
+package Benchmark;
+
+import Engine.GameEngine;
+import Engine.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading of a generated game description (Utils.parser) into a new headless engine. The description only holds
+ * entities and their transforms: materials would need a GL context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entities;
+
+    private Path gameFile;
+
+    // Path of the game file, relative to the resources folder the parser reads from.
+    private String gameFileName;
+
+    private GameEngine engine;
+
+    @Setup(Level.Trial)
+    public void writeGameFile() throws IOException {
+        this.gameFile = Files.createTempFile("metenorage-benchmark", ".json");
+        try (BufferedWriter writer = Files.newBufferedWriter(this.gameFile, StandardCharsets.UTF_8)) {
+            writer.write("{\n\"Game\":[\n");
+            for(int i = 0; i < this.entities; i++) {
+                writer.write("  {\n");
+                writer.write("    \"Name\": \"Entity" + i + "\",\n");
+                writer.write("    \"Tag\": \"generated\",\n");
+                writeVector(writer, "Position", i % 100, (i / 100) % 100, -(i / 10000));
+                writeVector(writer, "Rotation", 0, i % 360, 0);
+                writeVector(writer, "Scale", 1, 1, 1);
+                writer.write(i < this.entities - 1 ? "  },\n" : "  }\n");
+            }
+            writer.write("]\n}\n");
+        }
+
+        Path resources = Paths.get("./resources/").toAbsolutePath().normalize();
+        this.gameFileName = resources.relativize(this.gameFile.toAbsolutePath()).toString();
+    }
+
+    private static void writeVector(BufferedWriter writer, String name, float x, float y, float z)
+            throws IOException {
+        writer.write("    \"" + name + "\": {\n");
+        writer.write("      \"x\": " + x + ",\n");
+        writer.write("      \"y\": " + y + ",\n");
+        writer.write("      \"z\": " + z + "\n");
+        writer.write("    },\n");
+    }
+
+    @Setup(Level.Invocation)
+    public void createEngine() {
+        // Every load needs an empty engine.
+        this.engine = GameEngine.createHeadless();
+        this.engine.getWorld().bind();
+    }
+
+    @Benchmark
+    public GameEngine parser() {
+        Utils.parser(this.gameFileName, this.engine);
+        return this.engine;
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteGameFile() throws IOException {
+        Files.deleteIfExists(this.gameFile);
+    }
+}
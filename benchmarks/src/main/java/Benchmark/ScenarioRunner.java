@@ -0,0 +1,349 @@
+package Benchmark;
+
+import Engine.GameEngine;
+import Engine.Helper.Histogram;
+import Engine.Helper.Profiler;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs a generated scene for a fixed number of ticks on a headless engine and writes what it measured: ticks per
+ * second, the time of every system, the allocated memory and the garbage collections. The scene is run a first
+ * time to warm the JIT up, then on a fresh engine for the measure.
+ *
+ * With --max-allocation, the runner also guards the allocation rate of the steady state: it exits with status 1
+ * when the measured ticks allocate more than the given number of bytes per tick, so that a build can fail on an
+ * allocation regression. Allocations are read from the counters of every live thread, background threads of the
+ * JVM included, so the threshold should leave them a small margin.
+ *
+ * --updates-per-second sets the rate of the engine, and --rates the lower rates of some systems, e.g.
+ * "sound=15,scripting=30", to compare how the work is spread over the ticks.
+ *
+ * --coalescing enables the merge of messages on the queue of the world, see MessageQueue.setCoalescing. The messages
+ * delivered and merged are reported with the other measures, so that runs of a scene with spinners, with and without
+ * coalescing, show what it saves.
+ *
+ * Usage: ScenarioRunner [--layout minedraft|find_your_way] [--grid 8x8] [--bodies 0] [--scripts 0] [--spinners 0]
+ *                       [--sources 0] [--lights 0] [--listeners 0] [--bounded-physics false] [--ticks 1000]
+ *                       [--warmup 200] [--seed 42] [--updates-per-second 50] [--coalescing false]
+ *                       [--rates physics|logic|sound|scripting=hz,...]
+ *                       [--format csv|json] [--output stress-results.csv] [--max-allocation bytes-per-tick]
+ */
+public class ScenarioRunner {
+
+    private final StressScene scene;
+
+    private final int ticks;
+
+    private final int warmupTicks;
+
+    // Names of the simulation systems, in the order of GameEngine.getSystems.
+    private static final List<String> SYSTEM_NAMES = Arrays.asList("graphics", "input", "physics", "logic", "sound",
+            "scripting");
+
+    private int updatesPerSecond = 50;
+
+    private boolean coalescing = false;
+
+    private final Map<String, Integer> rates = new HashMap<>();
+
+    public ScenarioRunner(StressScene scene, int ticks, int warmupTicks) {
+        this.scene = scene;
+        this.ticks = ticks;
+        this.warmupTicks = warmupTicks;
+    }
+
+    /**
+     * @param updatesPerSecond rate of the engine updates.
+     */
+    public void setUpdatesPerSecond(int updatesPerSecond) {
+        this.updatesPerSecond = updatesPerSecond;
+    }
+
+    /**
+     * @param coalescing whether the message queue of the world merges messages, see MessageQueue.setCoalescing.
+     */
+    public void setCoalescing(boolean coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    /**
+     * @param system physics, logic, sound or scripting.
+     * @param updatesPerSecond rate of the system, see GameSystem.setUpdatesPerSecond.
+     */
+    public void setSystemRate(String system, int updatesPerSecond) {
+        if(SYSTEM_NAMES.indexOf(system) < 2)
+            throw new IllegalArgumentException("Unknown simulation system: " + system);
+        this.rates.put(system, updatesPerSecond);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for(int i = 0; i + 1 < args.length; i += 2) {
+            if(!args[i].startsWith("--")) {
+                System.out.println("Unexpected argument: " + args[i]);
+                return;
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+
+        StressScene scene = new StressScene();
+        scene.setLayout(StressScene.Layout.valueOf(options.getOrDefault("layout", "minedraft").toUpperCase()));
+        String[] grid = options.getOrDefault("grid", "8x8").split("x");
+        scene.setGrid(Integer.parseInt(grid[0]), Integer.parseInt(grid[1]));
+        scene.setRigidBodies(Integer.parseInt(options.getOrDefault("bodies", "0")));
+        scene.setScriptedEntities(Integer.parseInt(options.getOrDefault("scripts", "0")));
+        scene.setSpinners(Integer.parseInt(options.getOrDefault("spinners", "0")));
+        scene.setSources(Integer.parseInt(options.getOrDefault("sources", "0")));
+        scene.setLights(Integer.parseInt(options.getOrDefault("lights", "0")));
+        scene.setInputListeners(Integer.parseInt(options.getOrDefault("listeners", "0")));
+        scene.setSeed(Long.parseLong(options.getOrDefault("seed", "42")));
+        scene.setBoundedPhysics(Boolean.parseBoolean(options.getOrDefault("bounded-physics", "false")));
+
+        ScenarioRunner runner = new ScenarioRunner(scene, Integer.parseInt(options.getOrDefault("ticks", "1000")),
+                Integer.parseInt(options.getOrDefault("warmup", "200")));
+        runner.setUpdatesPerSecond(Integer.parseInt(options.getOrDefault("updates-per-second", "50")));
+        runner.setCoalescing(Boolean.parseBoolean(options.getOrDefault("coalescing", "false")));
+        if(options.containsKey("rates")) {
+            for(String rate : options.get("rates").split(",")) {
+                String[] systemRate = rate.split("=");
+                runner.setSystemRate(systemRate[0].trim().toLowerCase(), Integer.parseInt(systemRate[1].trim()));
+            }
+        }
+        Result result = runner.run();
+
+        String format = options.getOrDefault("format", "csv");
+        String output = options.getOrDefault("output", "stress-results." + format);
+        String report = format.equals("json") ? result.toJson() : result.toCsv();
+        Files.write(Paths.get(output), report.getBytes(StandardCharsets.UTF_8));
+        System.out.println(String.format(Locale.ROOT, "%d ticks at %.1f ticks/s, results written to %s",
+                result.ticks, result.ticksPerSecond, output));
+
+        if(options.containsKey("max-allocation")) {
+            long maxAllocation = Long.parseLong(options.get("max-allocation"));
+            long allocation = result.getAllocatedBytesPerTick();
+            if(allocation < 0) {
+                System.out.println("Allocations cannot be measured on this JVM.");
+                System.exit(1);
+            } else if(allocation > maxAllocation) {
+                System.out.println(String.format(Locale.ROOT, "Allocation regression: %d bytes per tick, at most %d "
+                        + "expected.", allocation, maxAllocation));
+                System.exit(1);
+            }
+            System.out.println(String.format(Locale.ROOT, "%d bytes allocated per tick, at most %d expected.",
+                    allocation, maxAllocation));
+        }
+    }
+
+    /**
+     * Warm up, then run the measured ticks.
+     * @return the measures of the second run.
+     * @throws Exception if the scene could not be generated.
+     */
+    public Result run() throws Exception {
+        if(this.warmupTicks > 0) {
+            GameEngine warmup = createEngine(this.warmupTicks);
+            warmup.run();
+        }
+
+        GameEngine engine = createEngine(this.ticks);
+
+        long allocatedBefore = allocatedBytes();
+        long collectionsBefore = collectionCount();
+        long collectionTimeBefore = collectionTime();
+        long start = System.nanoTime();
+
+        // The engine runs on this thread and cleans itself up once the ticks are done.
+        engine.run();
+
+        long duration = System.nanoTime() - start;
+        Result result = new Result();
+        result.scene = this.scene;
+        result.ticks = this.ticks;
+        result.entities = engine.getWorld().getMetadataManager().getEntitiesCount();
+        result.seconds = duration / 1e9;
+        result.ticksPerSecond = this.ticks / result.seconds;
+        result.allocatedBytes = allocatedBytes() - allocatedBefore;
+        result.collections = collectionCount() - collectionsBefore;
+        result.collectionTime = collectionTime() - collectionTimeBefore;
+        result.profiler = engine.getProfiler();
+        result.coalescing = this.coalescing;
+        result.deliveredMessages = engine.getWorld().getMessageQueue().getDeliveredMessages();
+        result.coalescedMessages = engine.getWorld().getMessageQueue().getCoalescedMessages();
+
+        return result;
+    }
+
+    private GameEngine createEngine(int ticks) throws Exception {
+        GameEngine engine = GameEngine.createHeadless();
+        engine.setLoopsLimit(ticks);
+        engine.setUpdatesPerSecond(this.updatesPerSecond);
+        engine.getWorld().getMessageQueue().setCoalescing(this.coalescing);
+        for(Map.Entry<String, Integer> rate : this.rates.entrySet()) {
+            engine.getSystems().get(SYSTEM_NAMES.indexOf(rate.getKey())).setUpdatesPerSecond(rate.getValue());
+        }
+        this.scene.populate(engine);
+        return engine;
+    }
+
+    /**
+     * @return the bytes allocated so far by the live threads, e.g. the game loop and the pool running the systems,
+     * or -1 if the JVM cannot tell.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if(!(threads instanceof com.sun.management.ThreadMXBean))
+            return -1;
+
+        long total = 0;
+        for(long allocated : ((com.sun.management.ThreadMXBean) threads)
+                .getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if(allocated > 0)
+                total += allocated;
+        }
+        return total;
+    }
+
+    private static long collectionCount() {
+        long count = 0;
+        for(GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long collectionTime() {
+        long time = 0;
+        for(GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return time;
+    }
+
+    public static class Result {
+
+        private StressScene scene;
+
+        private int ticks;
+
+        private int entities;
+
+        private double seconds;
+
+        private double ticksPerSecond;
+
+        private long allocatedBytes;
+
+        private long collections;
+
+        // Total duration of the collections, in milliseconds.
+        private long collectionTime;
+
+        private Profiler profiler;
+
+        private boolean coalescing;
+
+        private long deliveredMessages;
+
+        private long coalescedMessages;
+
+        public double getTicksPerSecond() {
+            return this.ticksPerSecond;
+        }
+
+        public Profiler getProfiler() {
+            return this.profiler;
+        }
+
+        /**
+         * @return one line per profiler section, each repeating the parameters and totals of the run.
+         */
+        public String toCsv() {
+            StringBuilder csv = new StringBuilder();
+            csv.append("layout,grid_width,grid_depth,bodies,scripts,spinners,sources,lights,listeners,bounded_physics,")
+                    .append("entities,ticks,coalescing,")
+                    .append("seconds,ticks_per_second,allocated_bytes_per_tick,gc_count,gc_time_ms,")
+                    .append("delivered_messages,coalesced_messages,")
+                    .append("section,count,mean_ms,p50_ms,p99_ms,max_ms\n");
+
+            String run = String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%d,%d,%d,%b,%d,%d,%b,%.3f,%.1f,%d,%d,%d,%d,%d",
+                    this.scene.getLayout().name().toLowerCase(), this.scene.getGridWidth(),
+                    this.scene.getGridDepth(), this.scene.getRigidBodies(), this.scene.getScriptedEntities(),
+                    this.scene.getSpinners(), this.scene.getSources(), this.scene.getLights(),
+                    this.scene.getInputListeners(), this.scene.isBoundedPhysics(), this.entities,
+                    this.ticks, this.coalescing, this.seconds,
+                    this.ticksPerSecond, getAllocatedBytesPerTick(), this.collections, this.collectionTime,
+                    this.deliveredMessages, this.coalescedMessages);
+
+            for(Map.Entry<String, Histogram> section : getSections().entrySet()) {
+                Histogram histogram = section.getValue();
+                csv.append(run).append(',').append(section.getKey()).append(String.format(Locale.ROOT,
+                        ",%d,%.4f,%.4f,%.4f,%.4f\n", histogram.getCount(), histogram.getMean() / 1e6,
+                        histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+                        histogram.getMax() / 1e6));
+            }
+            return csv.toString();
+        }
+
+        public String toJson() {
+            StringBuilder json = new StringBuilder();
+            json.append("{\n");
+            json.append(String.format(Locale.ROOT, "  \"scene\": {\"layout\": \"%s\", \"gridWidth\": %d, "
+                            + "\"gridDepth\": %d, \"bodies\": %d, \"scripts\": %d, \"spinners\": %d, \"sources\": %d, "
+                            + "\"lights\": %d, \"listeners\": %d, \"boundedPhysics\": %b, \"seed\": %d},\n",
+                    this.scene.getLayout().name().toLowerCase(), this.scene.getGridWidth(),
+                    this.scene.getGridDepth(), this.scene.getRigidBodies(), this.scene.getScriptedEntities(),
+                    this.scene.getSpinners(), this.scene.getSources(), this.scene.getLights(),
+                    this.scene.getInputListeners(),
+                    this.scene.isBoundedPhysics(),
+                    this.scene.getSeed()));
+            json.append(String.format(Locale.ROOT, "  \"entities\": %d,\n  \"ticks\": %d,\n  \"seconds\": %.3f,\n"
+                            + "  \"ticksPerSecond\": %.1f,\n  \"allocatedBytesPerTick\": %d,\n"
+                            + "  \"gcCount\": %d,\n  \"gcTimeMs\": %d,\n  \"coalescing\": %b,\n"
+                            + "  \"deliveredMessages\": %d,\n  \"coalescedMessages\": %d,\n",
+                    this.entities, this.ticks, this.seconds, this.ticksPerSecond, getAllocatedBytesPerTick(),
+                    this.collections, this.collectionTime, this.coalescing, this.deliveredMessages,
+                    this.coalescedMessages));
+
+            json.append("  \"sections\": [\n");
+            List<String> sections = new ArrayList<>();
+            for(Map.Entry<String, Histogram> section : getSections().entrySet()) {
+                Histogram histogram = section.getValue();
+                sections.add(String.format(Locale.ROOT, "    {\"name\": \"%s\", \"count\": %d, \"meanMs\": %.4f, "
+                                + "\"p50Ms\": %.4f, \"p99Ms\": %.4f, \"maxMs\": %.4f}", section.getKey(),
+                        histogram.getCount(), histogram.getMean() / 1e6, histogram.getValueAtPercentile(50) / 1e6,
+                        histogram.getValueAtPercentile(99) / 1e6, histogram.getMax() / 1e6));
+            }
+            json.append(String.join(",\n", sections)).append("\n  ]\n}\n");
+            return json.toString();
+        }
+
+        /**
+         * @return the bytes allocated per measured tick, or -1 if the JVM cannot tell.
+         */
+        public long getAllocatedBytesPerTick() {
+            return this.allocatedBytes < 0 ? -1 : this.allocatedBytes / Math.max(1, this.ticks);
+        }
+
+        private Map<String, Histogram> getSections() {
+            Map<String, Histogram> sections = new LinkedHashMap<>();
+            sections.put("Frame", this.profiler.getFrameTimes());
+            for(Profiler.Section section : this.profiler.getSections()) {
+                sections.put(section.getName(), section.getHistogram());
+            }
+            return sections;
+        }
+    }
+}
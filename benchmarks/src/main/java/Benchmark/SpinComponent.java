@@ -0,0 +1,48 @@
+package Benchmark;
+
+import Engine.Main.Entity;
+import Engine.System.Component.BaseComponent;
+import Engine.System.Component.Messaging.Message;
+import Engine.System.Component.Messaging.Opcodes;
+import Engine.System.Logic.LogicComponent;
+import Engine.World;
+
+/**
+ * Logic component turning its entity through messages to the transform, like scripts did before they accessed it
+ * directly. Several of them on one entity send their turns in a row, which the message queue can add up, see
+ * Opcodes.Coalescing.ADDITIVE.
+ */
+public class SpinComponent extends BaseComponent implements LogicComponent {
+
+    private final float angle;
+
+    /**
+     * @param entity entity to turn.
+     * @param angle  turn around the y axis on every update, in degrees.
+     */
+    public SpinComponent(Entity entity, float angle) {
+        super(entity);
+        this.angle = angle;
+    }
+
+    @Override
+    public void initialize() {
+
+    }
+
+    @Override
+    public void apply() {
+        World.current().getMessageQueue().send(getID(), getEntity().getTransform().getID(), Opcodes.ROTATE,
+                0f, this.angle, 0f);
+    }
+
+    @Override
+    public void onMessage(Message message) {
+
+    }
+
+    @Override
+    public void Update() {
+
+    }
+}
@@ -0,0 +1,310 @@
+package Benchmark;
+
+import Engine.GameEngine;
+import Engine.Helper.Loader.OBJLoader;
+import Engine.Main.Entity;
+import Engine.Main.Light.DirectionalLight;
+import Engine.Main.Light.PointLight;
+import Engine.Main.Light.SpotLight;
+import Engine.Main.ScriptFile;
+import Engine.Main.Sound;
+import Engine.System.Graphics.Camera;
+import Engine.System.Graphics.Component.Mesh3D;
+import Engine.System.Physics.Component.BoxRigidBodyComponent;
+import Engine.System.Scripting.Component.Script;
+import Engine.System.Sound.Component.Source;
+import Engine.World;
+import org.joml.Vector3f;
+
+import java.util.Random;
+
+/**
+ * Generates the scenes of the games at any scale, to find where the engine stops keeping up.
+ *
+ * MINEDRAFT lays a full grid of static blocks at bedrock depth, like Minedraft. FIND_YOUR_WAY lays a path of
+ * platforms climbing step by step with gaps in between, like FindYourWay. Dynamic bodies then fall on the blocks,
+ * and scripted entities, spinners, sound sources, input listeners and lights are spread over them. Materials and sounds are
+ * not loaded: the scene is meant for headless engines. The same seed always gives the same scene.
+ *
+ * Spinners are turned by several logic components each, through messages: they load the message queue, and show what
+ * coalescing saves when it is enabled, see MessageQueue.setCoalescing.
+ */
+public class StressScene {
+
+    public enum Layout {
+        MINEDRAFT,
+        FIND_YOUR_WAY
+    }
+
+    private static final float BED_ROCK_DEPTH = -2;
+
+    // Logic components turning each spinner, and so messages sent to its transform on every update.
+    private static final int SPINS_PER_SPINNER = 4;
+
+    private Layout layout = Layout.MINEDRAFT;
+
+    private int gridWidth = 8;
+
+    private int gridDepth = 8;
+
+    private int rigidBodies = 0;
+
+    private int scriptedEntities = 0;
+
+    private int spinners = 0;
+
+    private int sources = 0;
+
+    private int lights = 0;
+
+    private int inputListeners = 0;
+
+    private long seed = 42;
+
+    private boolean boundedPhysics = false;
+
+    // Number of static blocks of the last populated scene.
+    private int blocks = 0;
+
+    /**
+     * Fill an engine with the scene. The engine must not be running.
+     * @param engine engine to fill.
+     * @throws Exception if the cube model could not be loaded.
+     */
+    public void populate(GameEngine engine) throws Exception {
+        World previous = engine.getWorld().bind();
+        try {
+            addEntities(engine);
+        } finally {
+            World.unbind(previous);
+        }
+    }
+
+    private void addEntities(GameEngine engine) throws Exception {
+        Random random = new Random(this.seed);
+        Mesh3D cube = OBJLoader.loadMesh("/Game/Models/cube.obj");
+
+        if(this.boundedPhysics) {
+            // Room for every block and body, and a margin above the grid for the falling bodies.
+            engine.getWorld().getPhysicsSystem().setWorldBounds(
+                    new javax.vecmath.Vector3f(-2, BED_ROCK_DEPTH - 2, -4 - this.gridDepth),
+                    new javax.vecmath.Vector3f(this.gridWidth + 2, 20 + this.gridDepth / 2f, 0),
+                    this.gridWidth * this.gridDepth + this.rigidBodies + 16);
+        }
+
+        // Static blocks.
+        this.blocks = 0;
+        for(int i = 0; i < this.gridWidth; i++) {
+            for(int j = 0; j < this.gridDepth; j++) {
+                float height = BED_ROCK_DEPTH;
+                if(this.layout == Layout.FIND_YOUR_WAY) {
+                    // Every third row is a gap, and the path climbs a step after each gap.
+                    if(j % 3 == 2)
+                        continue;
+                    height += (j / 3) * 0.5f;
+                }
+
+                Entity block = new Entity("Block (" + i + ", " + j + ")");
+                block.addComponent(new Mesh3D(block, cube));
+                block.addComponent(new BoxRigidBodyComponent(block, 0, 0.5f, 0.5f, 0.5f));
+                block.getTransform().setPosition(i, height, -2f - j);
+                block.getTransform().setScale(0.5f);
+                engine.addEntity(block);
+                this.blocks++;
+            }
+        }
+
+        // Dynamic bodies, dropped above the blocks.
+        for(int i = 0; i < this.rigidBodies; i++) {
+            Entity body = new Entity("Body " + i);
+            body.addComponent(new Mesh3D(body, cube));
+            body.addComponent(new BoxRigidBodyComponent(body, 1, 0.2f, 0.2f, 0.2f));
+            body.getTransform().setPosition(randomX(random), 1f + random.nextFloat() * 10, randomZ(random));
+            body.getTransform().setScale(0.2f);
+            engine.addEntity(body);
+        }
+
+        // Scripted entities, spinning like the life items of FindYourWay.
+        if(this.scriptedEntities > 0) {
+            ScriptFile rotateScript = new ScriptFile("ScriptRotateHealth");
+            engine.addScript(rotateScript);
+
+            for(int i = 0; i < this.scriptedEntities; i++) {
+                Entity item = new Entity("Item " + i);
+                item.addComponent(new Mesh3D(item, cube));
+                item.addComponent(new Script(item, rotateScript));
+                item.getTransform().setPosition(randomX(random), 0.7f, randomZ(random));
+                item.getTransform().setScale(0.2f);
+                item.setTag("life");
+                engine.addEntity(item);
+            }
+        }
+
+        // Spinners, turned through messages.
+        for(int i = 0; i < this.spinners; i++) {
+            Entity spinner = new Entity("Spinner " + i);
+            spinner.addComponent(new Mesh3D(spinner, cube));
+            for(int j = 0; j < SPINS_PER_SPINNER; j++) {
+                spinner.addComponent(new SpinComponent(spinner, 0.5f));
+            }
+            spinner.getTransform().setPosition(randomX(random), 0.7f, randomZ(random));
+            spinner.getTransform().setScale(0.2f);
+            engine.addEntity(spinner);
+        }
+
+        // Sound sources. The sound is never loaded: a headless engine has no audio device.
+        if(this.sources > 0) {
+            Sound sound = new Sound();
+            sound.setName("Stress");
+            engine.addSound(sound);
+
+            for(int i = 0; i < this.sources; i++) {
+                Entity emitter = new Entity("Source " + i);
+                emitter.getTransform().setPosition(randomX(random), 0, randomZ(random));
+                emitter.addComponent(new Source(emitter, sound));
+                engine.addEntity(emitter);
+            }
+        }
+
+        // Input listeners, walked by the input system on every loop.
+        for(int i = 0; i < this.inputListeners; i++) {
+            Entity listener = new Entity("Listener " + i);
+            listener.getTransform().setPosition(randomX(random), 0, randomZ(random));
+            listener.addComponent(new InputCounterComponent(listener));
+            engine.addEntity(listener);
+        }
+
+        // Lights: a directional light first, then spot and point lights in turn.
+        for(int i = 0; i < this.lights; i++) {
+            Vector3f position = new Vector3f(randomX(random), 2 + random.nextFloat() * 6, randomZ(random));
+            Vector3f color = new Vector3f(random.nextFloat(), random.nextFloat(), random.nextFloat());
+            PointLight pointLight = new PointLight(color, position, 1f);
+            pointLight.setAttenuation(new PointLight.Attenuation(0.0f, 0.0f, 0.02f));
+
+            if(i == 0) {
+                engine.addEntity(new DirectionalLight(color, new Vector3f(0.5f, -1f, 0), 1f));
+            } else if(i % 2 == 1) {
+                engine.addEntity(new SpotLight(pointLight, new Vector3f(0.5f, -1f, -0.5f),
+                        (float) Math.toRadians(170)));
+            } else {
+                engine.addEntity(pointLight);
+            }
+        }
+
+        Camera camera = new Camera();
+        camera.setName("Stress camera");
+        camera.getTransform().setPosition(this.gridWidth / 2f, 4f, 2f);
+        engine.setCamera(camera);
+
+        // Only its geometry was used.
+        cube.releaseID();
+    }
+
+    private float randomX(Random random) {
+        return random.nextFloat() * this.gridWidth;
+    }
+
+    private float randomZ(Random random) {
+        return -2f - random.nextFloat() * this.gridDepth;
+    }
+
+    /**
+     * @return the number of static blocks laid by the last call to populate.
+     */
+    public int getBlocks() {
+        return this.blocks;
+    }
+
+    public Layout getLayout() {
+        return this.layout;
+    }
+
+    public void setLayout(Layout layout) {
+        this.layout = layout;
+    }
+
+    public int getGridWidth() {
+        return this.gridWidth;
+    }
+
+    public int getGridDepth() {
+        return this.gridDepth;
+    }
+
+    /**
+     * @param gridWidth number of blocks along the x axis.
+     * @param gridDepth number of blocks along the z axis.
+     */
+    public void setGrid(int gridWidth, int gridDepth) {
+        this.gridWidth = gridWidth;
+        this.gridDepth = gridDepth;
+    }
+
+    public int getRigidBodies() {
+        return this.rigidBodies;
+    }
+
+    public void setRigidBodies(int rigidBodies) {
+        this.rigidBodies = rigidBodies;
+    }
+
+    public int getScriptedEntities() {
+        return this.scriptedEntities;
+    }
+
+    public void setScriptedEntities(int scriptedEntities) {
+        this.scriptedEntities = scriptedEntities;
+    }
+
+    public int getSpinners() {
+        return this.spinners;
+    }
+
+    public void setSpinners(int spinners) {
+        this.spinners = spinners;
+    }
+
+    public int getSources() {
+        return this.sources;
+    }
+
+    public void setSources(int sources) {
+        this.sources = sources;
+    }
+
+    public int getLights() {
+        return this.lights;
+    }
+
+    public void setLights(int lights) {
+        this.lights = lights;
+    }
+
+    public int getInputListeners() {
+        return this.inputListeners;
+    }
+
+    public void setInputListeners(int inputListeners) {
+        this.inputListeners = inputListeners;
+    }
+
+    public boolean isBoundedPhysics() {
+        return this.boundedPhysics;
+    }
+
+    /**
+     * @param boundedPhysics whether the physics use the sweep and prune broadphase, bounded to the scene, rather
+     *                       than the dynamic AABB tree. See PhysicsSystem.setWorldBounds.
+     */
+    public void setBoundedPhysics(boolean boundedPhysics) {
+        this.boundedPhysics = boundedPhysics;
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+}
@@ -0,0 +1,65 @@
+package Benchmark;
+
+import Engine.GameEngine;
+import Engine.Main.Entity;
+import Engine.World;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Headless engine filled with generated entities: no window, GL context nor audio device is needed.
+ * Entities are laid out on a 100 x 100 grid per layer, and each holds a counter component.
+ */
+public class SyntheticWorld {
+
+    private final GameEngine engine;
+
+    private final List<Entity> entities;
+
+    private final List<CounterComponent> counters;
+
+    public SyntheticWorld(int entitiesCount) throws Exception {
+        this.engine = GameEngine.createHeadless();
+        // Bind the world of the engine to the calling thread: the entities below belong to it.
+        this.engine.getWorld().bind();
+        this.engine.getWorld().initializeSystems();
+        this.entities = new ArrayList<>(entitiesCount);
+        this.counters = new ArrayList<>(entitiesCount);
+
+        for(int i = 0; i < entitiesCount; i++) {
+            Entity entity = new Entity("Entity " + i);
+            entity.getTransform().setPosition(i % 100, (i / 100) % 100, -(i / 10000));
+
+            CounterComponent counter = new CounterComponent(entity);
+            entity.addComponent(counter);
+
+            this.engine.addEntity(entity);
+            this.entities.add(entity);
+            this.counters.add(counter);
+        }
+    }
+
+    /**
+     * Bind the world to the current thread. Benchmark threads must call it before touching the world.
+     */
+    public void bind() {
+        this.engine.getWorld().bind();
+    }
+
+    public GameEngine getEngine() {
+        return this.engine;
+    }
+
+    public World getWorld() {
+        return this.engine.getWorld();
+    }
+
+    public List<Entity> getEntities() {
+        return this.entities;
+    }
+
+    public List<CounterComponent> getCounters() {
+        return this.counters;
+    }
+}
@@ -0,0 +1,65 @@
+package Benchmark;
+
+import Engine.Main.Entity;
+import Engine.System.GameSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Walk of the components of a system (BaseSystem.iterate), and a whole update of the world.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SystemIterateBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entities;
+
+    private SyntheticWorld world;
+
+    private GameSystem logicSystem;
+
+    private List<Entity> registeredEntities;
+
+    @Setup(Level.Trial)
+    public void createWorld() throws Exception {
+        this.world = new SyntheticWorld(this.entities);
+        // Systems keep their fixed order: graphics, input, physics, logic, sound, scripting.
+        this.logicSystem = this.world.getEngine().getSystems().get(3);
+        this.registeredEntities = this.world.getWorld().getMetadataManager().getEntities();
+    }
+
+    @Setup(Level.Iteration)
+    public void bindWorld() {
+        this.world.bind();
+    }
+
+    @Benchmark
+    public long baseSystemIterate() {
+        this.logicSystem.iterate(this.registeredEntities, 0.02f);
+        return this.world.getCounters().get(0).getApplied();
+    }
+
+    @Benchmark
+    public long worldUpdate() {
+        this.world.getWorld().update(0.02f);
+        return this.world.getCounters().get(0).getApplied();
+    }
+}
@@ -0,0 +1,75 @@
+package Benchmark;
+
+import Engine.Main.Entity;
+import Engine.TransformationUtils;
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Model-view matrices of every entity (TransformationUtils.getModelViewMatrix), with cached world matrices and
+ * after every entity moved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entities;
+
+    private SyntheticWorld world;
+
+    private final Matrix4f viewMatrix = new Matrix4f();
+
+    private final Matrix4f modelViewMatrix = new Matrix4f();
+
+    @Setup(Level.Trial)
+    public void createWorld() throws Exception {
+        this.world = new SyntheticWorld(this.entities);
+        this.viewMatrix.identity().rotateX((float) Math.toRadians(20)).translate(-50, -50, 10);
+    }
+
+    @Setup(Level.Iteration)
+    public void bindWorld() {
+        this.world.bind();
+    }
+
+    @Benchmark
+    public void getModelViewMatrix(Blackhole blackhole) {
+        List<Entity> entities = this.world.getEntities();
+        for(int i = 0; i < entities.size(); i++) {
+            blackhole.consume(TransformationUtils.getModelViewMatrix(entities.get(i), this.viewMatrix,
+                    this.modelViewMatrix).m30());
+        }
+    }
+
+    @Benchmark
+    public void getModelViewMatrixAfterMove(Blackhole blackhole) {
+        List<Entity> entities = this.world.getEntities();
+        for(int i = 0; i < entities.size(); i++) {
+            entities.get(i).getTransform().movePosition(0.001f, 0, 0);
+        }
+        for(int i = 0; i < entities.size(); i++) {
+            blackhole.consume(TransformationUtils.getModelViewMatrix(entities.get(i), this.viewMatrix,
+                    this.modelViewMatrix).m30());
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package Game.Scripts;
 
+import Engine.System.Component.Messaging.Opcodes;
 import Engine.System.Component.Transform;
 import Engine.System.Physics.Component.BoxRigidBodyComponent;
 import Engine.System.Scripting.BaseScript;
-import Engine.System.Scripting.Callback;
 import Game.Input.PlayerKeyboard;
 import org.joml.Vector3f;
 
@@ -18,6 +18,7 @@ public class ScriptPlayer extends BaseScript {
     private Integer componentEntityKeyboard;
     private Integer entity;
     private Integer lifeBlock;
+    private final Vector3f position = new Vector3f();
     static int nbLife;
     static boolean bonusTook;
     static boolean playerWin;
@@ -39,48 +40,41 @@ public class ScriptPlayer extends BaseScript {
     }
 
     public void update() {
-        Callback callback = new Callback() {
-            @Override
-            public void call(Object result) {
-                Vector3f pos = (Vector3f) result;
-                //DEFEAT of the player
-                if(pos.y <= -6f) {
-                    callMethodComponent(componentTransform, "setPosition", new Vector3f(1f, -1f, -3.5f));
-                    callMethodComponent(componentTransform, "setRotation", new Vector3f(0,0,0));
-                    callMethodComponent(componentRigidBody, "reInitialize",null);
-                    if(nbLife == 0) {
-                        System.out.println("You lost !");
-                        removeComponentFromEntitiy(entity,componentEntityKeyboard);
-                    } else {
-                        nbLife--;
-                        bonusTook = false;
-                        callMethodComponent(getComponentsFromEntity(lifeBlock,Transform.class).get(0),"setScale",0.2f);
-                        callMethodComponent(getComponentsFromEntity(lifeBlock,BoxRigidBodyComponent.class).get(0),"setCollisionShape",new javax.vecmath.Vector3f(0.2f,0.2f,0.2f));
-                        System.out.println("You fell ! Remaining life : " + nbLife);
-                    }
-                } //VICTORY of the player
-                else if(pos.x > 3.7 && pos.x < 5.2 && pos.y > -3 && pos.z > 9.5 && pos.z < 11) {
-                    if(!playerWin) {
-                        System.out.println("You win !");
-                    }
-                   playerWin = true;
-                    removeComponentFromEntitiy(entity,componentEntityKeyboard);
-                } //BONUS LIFE
-                else if(pos.x > 10 && pos.x < 10.1 && pos.y > 0.3 && pos.z > -9 && pos.z < -8) {
-                    if(!bonusTook) {
-                        System.out.println("You find a life bonus !");
-                        bonusTook = true;
-                        nbLife++;
-                        callMethodComponent(getComponentsFromEntity(lifeBlock,Transform.class).get(0),"setScale",0.0f);
-                        callMethodComponent(getComponentsFromEntity(lifeBlock,BoxRigidBodyComponent.class).get(0),"setCollisionShape",new javax.vecmath.Vector3f(0f,0f,0f));
-                    }
-
-                }
-
+        Vector3f pos = getPosition(this.position);
+        //DEFEAT of the player
+        if(pos.y <= -6f) {
+            // Physics would overwrite a direct write: the transform is reset first, then the rigid body from it.
+            callMethodComponent(componentTransform, Opcodes.SET_POSITION, 1f, -1f, -3.5f);
+            callMethodComponent(componentTransform, Opcodes.SET_ROTATION, 0, 0, 0);
+            callMethodComponent(componentRigidBody, Opcodes.RE_INITIALIZE);
+            if(nbLife == 0) {
+                System.out.println("You lost !");
+                removeComponentFromEntitiy(entity,componentEntityKeyboard);
+            } else {
+                nbLife--;
+                bonusTook = false;
+                callMethodComponent(getComponentsFromEntity(lifeBlock,Transform.class).get(0),"setScale",0.2f);
+                callMethodComponent(getComponentsFromEntity(lifeBlock,BoxRigidBodyComponent.class).get(0),"setCollisionShape",new javax.vecmath.Vector3f(0.2f,0.2f,0.2f));
+                System.out.println("You fell ! Remaining life : " + nbLife);
+            }
+        } //VICTORY of the player
+        else if(pos.x > 3.7 && pos.x < 5.2 && pos.y > -3 && pos.z > 9.5 && pos.z < 11) {
+            if(!playerWin) {
+                System.out.println("You win !");
+            }
+           playerWin = true;
+            removeComponentFromEntitiy(entity,componentEntityKeyboard);
+        } //BONUS LIFE
+        else if(pos.x > 10 && pos.x < 10.1 && pos.y > 0.3 && pos.z > -9 && pos.z < -8) {
+            if(!bonusTook) {
+                System.out.println("You find a life bonus !");
+                bonusTook = true;
+                nbLife++;
+                callMethodComponent(getComponentsFromEntity(lifeBlock,Transform.class).get(0),"setScale",0.0f);
+                callMethodComponent(getComponentsFromEntity(lifeBlock,BoxRigidBodyComponent.class).get(0),"setCollisionShape",new javax.vecmath.Vector3f(0f,0f,0f));
             }
-        };
-        callReturnMethodComponent(componentTransform, "getPosition", null, callback);
 
+        }
     }
 
 }
@@ -27,7 +27,7 @@ public class ScriptRotateHealth extends BaseScript {
     }
 
     public void update() {
-        callMethodComponent(this.component, "rotate", new Vector3f(0,2f,0));
+        getTransform().rotate(0, 2f, 0);
     }
 
 }
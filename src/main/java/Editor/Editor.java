@@ -9,6 +9,7 @@ import Engine.Main.Light.SpotLight;
 import Engine.Main.Material;
 import Engine.Main.ScriptFile;
 import Engine.System.Graphics.Camera;
+import Engine.World;
 import Game.Input.CameraFollow;
 import Game.Input.CameraKeyboard;
 import org.joml.Vector3f;
@@ -36,6 +37,8 @@ public class Editor {
 
         // Center panel that will contains a preview of the game
         GameEngine gameEngine = new GameEngine("FindYourWay", 800, 600, true);
+        // The editor has a single world, also used by the user interface thread.
+        World.setDefault(gameEngine.getWorld());
 
         ScriptFile scriptRotateHealth = new ScriptFile("ScriptRotateHealth");
         gameEngine.addScript(scriptRotateHealth);
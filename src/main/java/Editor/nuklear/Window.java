@@ -36,6 +36,11 @@ public class Window extends Component {
      */
     private boolean isResized;
 
+    /**
+     * Tells whether or not the buffer swaps wait for the vertical synchronization.
+     */
+    private boolean vSync;
+
     private long windowHandle;
 
     public Window(String title, int width, int height, boolean isResizeable) {
@@ -152,6 +157,19 @@ public class Window extends Component {
         isResized = resized;
     }
 
+    public boolean isVSync() {
+        return vSync;
+    }
+
+    /**
+     * Set whether or not the buffer swaps wait for the vertical synchronization. Must be called from the thread
+     * owning the GL context, once the window is initialized.
+     */
+    public void setVSync(boolean vSync) {
+        this.vSync = vSync;
+        glfwSwapInterval(vSync ? 1 : 0);
+    }
+
     public long getWindowHandle() {
         return windowHandle;
     }
@@ -162,4 +180,13 @@ public class Window extends Component {
         glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
 
     }
+
+    /**
+     * Swap the buffers and clear them for the next frame, without polling the events. Used by a thread which
+     * owns the GL context but not the window: the events are then polled by the thread which created it.
+     */
+    public void swapAndClear() {
+        glfwSwapBuffers(windowHandle);
+        glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+    }
 }
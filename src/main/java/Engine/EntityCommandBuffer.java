@@ -0,0 +1,109 @@
+package Engine;
+
+import Engine.Main.Entity;
+import Engine.System.Component.Component;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records structural changes (entities created or destroyed, components added or removed) so that they are
+ * not applied while systems are iterating. Commands can be recorded from any system or thread; the game loop
+ * plays them back in one batch at its sync point, in the order they were recorded.
+ */
+public class EntityCommandBuffer {
+
+    private enum CommandType {
+        CREATE_ENTITY,
+        REMOVE_ENTITY,
+        DESTROY_ENTITY,
+        ADD_COMPONENT,
+        REMOVE_COMPONENT
+    }
+
+    private static class Command {
+        private final CommandType type;
+        private final Entity entity;
+        private final Component component;
+
+        private Command(CommandType type, Entity entity, Component component) {
+            this.type = type;
+            this.entity = entity;
+            this.component = component;
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Command> commands = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Add an entity, and the components it already holds, to the engine.
+     * @param entity entity to add.
+     */
+    public void createEntity(Entity entity) {
+        this.commands.add(new Command(CommandType.CREATE_ENTITY, entity, null));
+    }
+
+    /**
+     * Remove an entity from the engine. It can be added again later.
+     * @param entity entity to remove.
+     */
+    public void removeEntity(Entity entity) {
+        this.commands.add(new Command(CommandType.REMOVE_ENTITY, entity, null));
+    }
+
+    /**
+     * Remove an entity from the engine for good: its transform is given back to the store.
+     * @param entity entity to destroy. It must not be used afterwards.
+     */
+    public void destroyEntity(Entity entity) {
+        this.commands.add(new Command(CommandType.DESTROY_ENTITY, entity, null));
+    }
+
+    public void addComponent(Entity entity, Component component) {
+        this.commands.add(new Command(CommandType.ADD_COMPONENT, entity, component));
+    }
+
+    public void removeComponent(Entity entity, Component component) {
+        this.commands.add(new Command(CommandType.REMOVE_COMPONENT, entity, component));
+    }
+
+    public boolean isEmpty() {
+        return this.commands.isEmpty();
+    }
+
+    /**
+     * Apply every recorded command. Entities receiving several component changes are only moved once
+     * between archetypes, at the end of the playback.
+     * @param world world the commands are applied to.
+     */
+    void playback(World world) {
+        if(this.commands.isEmpty())
+            return;
+
+        world.getArchetypeManager().beginBatch();
+        try {
+            Command command;
+            while((command = this.commands.poll()) != null) {
+                switch(command.type) {
+                    case CREATE_ENTITY:
+                        world.registerEntity(command.entity);
+                        break;
+                    case REMOVE_ENTITY:
+                        world.unregisterEntity(command.entity);
+                        break;
+                    case DESTROY_ENTITY:
+                        world.unregisterEntity(command.entity);
+                        command.entity.getTransform().release();
+                        break;
+                    case ADD_COMPONENT:
+                        world.attachComponent(command.entity, command.component);
+                        break;
+                    case REMOVE_COMPONENT:
+                        world.detachComponent(command.entity, command.component);
+                        break;
+                }
+            }
+        } finally {
+            world.getArchetypeManager().endBatch();
+        }
+    }
+}
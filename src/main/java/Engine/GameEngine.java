@@ -6,28 +6,37 @@ package Engine;
  * @author Grégoire Boiron
  */
 
+import Engine.Helper.Events.Events;
+import Engine.Helper.Events.FrameEvent;
+import Engine.Helper.Events.SystemIterateEvent;
+import Engine.Helper.FramePacer;
+import Engine.Helper.Profiler;
 import Engine.Helper.Timer;
 import Engine.Main.Entity;
 import Engine.Main.Material;
 import Engine.Main.ScriptFile;
 import Engine.Main.Sound;
-import Engine.Managers.ComponentManager;
-import Engine.Managers.MetadataManager;
-import Engine.System.Component.Messaging.MessageQueue;
 import Engine.System.GameSystem;
 import Engine.System.Graphics.Camera;
 import Engine.System.Graphics.GraphicsSystem;
+import Engine.System.Graphics.HeadlessGraphicsSystem;
+import Engine.System.Graphics.SceneSnapshotBuffer;
 import Engine.System.Input.InputSystem;
 import Engine.System.Logic.LogicSystem;
 import Engine.System.Physics.PhysicsSystem;
 import Engine.System.Scripting.ScriptingSystem;
+import Engine.System.RecordingSystem;
+import Engine.System.Sound.SoundComponent;
 import Engine.System.Sound.SoundSystem;
 import org.joml.Vector3f;
 
 import java.util.LinkedList;
 import java.util.List;
 
+import static org.lwjgl.glfw.GLFW.glfwMakeContextCurrent;
+import static org.lwjgl.glfw.GLFW.glfwPollEvents;
 import static org.lwjgl.openal.AL10.alDeleteBuffers;
+import static org.lwjgl.system.MemoryUtil.NULL;
 
 public class GameEngine implements Runnable {
 
@@ -38,15 +47,67 @@ public class GameEngine implements Runnable {
     private final Thread gameLoopThread;
 
     private float timePerUpdate = 1f / 50;
-    private float timePerRendering = 1f / 30;
+
+    /**
+     * Keeps the loop at the rendering rate.
+     */
+    private final FramePacer framePacer = new FramePacer(30);
+
+    /**
+     * Maximum number of updates run in a single loop to catch up with the real time.
+     * Past it, the late time is dropped instead of piling up.
+     */
+    private int maxUpdatesPerLoop = 5;
+
+    /**
+     * Whether the rendering blends the transforms between the last two updates.
+     */
+    private boolean interpolationEnabled = true;
 
     // Systems
     private List<GameSystem> systems;
 
-    public static MessageQueue messageQueue;
-    // Resources Manager
-    public static MetadataManager metadataManager;
-    public static ComponentManager componentManager;
+    /**
+     * Entities, components, messages and structural changes of the engine.
+     */
+    private final World world;
+
+    // Profiler sections of the parts of the loop run outside of the world update.
+    private final Profiler.Section inputSection;
+    private final Profiler.Section graphicsSection;
+    private final Profiler.Section windowSection;
+    private final Profiler.Section publishSection;
+
+    /**
+     * Whether the game loop is running. Entities added or removed meanwhile go through the command buffer.
+     */
+    private volatile boolean running = false;
+
+    private volatile boolean stopRequested = false;
+
+    /**
+     * Whether the engine runs without window, see createHeadless.
+     */
+    private final boolean headless;
+
+    /**
+     * Whether updates follow the wall clock. Otherwise every loop runs exactly one update.
+     */
+    private boolean realTime = true;
+
+    /**
+     * Number of loops after which the engine stops, or -1.
+     */
+    private long loopsLimit = -1;
+
+    /**
+     * Whether rendering runs on its own thread, see setRenderThreadEnabled.
+     */
+    private boolean renderThreadEnabled = false;
+
+    private RenderThread renderThread;
+
+    private final SceneSnapshotBuffer snapshotBuffer = new SceneSnapshotBuffer();
 
     public GameEngine(String windowTitle, int windowWidth, int windowHeight) {
         this(windowTitle, windowWidth, windowHeight, false);
@@ -54,33 +115,71 @@ public class GameEngine implements Runnable {
 
 
     public GameEngine(String windowTitle, int windowWidth, int windowHeight, boolean inEditorMode) {
+        this(new Window(windowTitle, windowWidth, windowHeight, true), inEditorMode);
+    }
+
+    /**
+     * Each engine owns its world, see getWorld. The calling thread is left as it was: bind the world before
+     * creating the entities and components of the engine, or make it the default world of a single-world
+     * application.
+     * @param window window of the engine, or null for a headless engine.
+     * @param inEditorMode whether only the graphics system is active.
+     */
+    private GameEngine(Window window, boolean inEditorMode) {
         this.gameLoopThread = new Thread(this);
 
-        this.window = new Window(windowTitle, windowWidth, windowHeight, true);
+        this.window = window;
+        this.headless = window == null;
         this.timer = new Timer();
-        this.messageQueue = new MessageQueue();
-
-        this.componentManager = new ComponentManager();
-
-        // Systems setup.
-        this.systems = new LinkedList<>();
-        this.systems.add(new GraphicsSystem(this.window));
-        this.systems.add(new InputSystem(window, messageQueue));
-        this.systems.add(new PhysicsSystem());
-        // The first 3 systems must keep this order.
-        this.systems.add(new LogicSystem());
-        this.systems.add(new SoundSystem());
-        this.systems.add(new ScriptingSystem());
-
-        // Check the current mode (if the editor is running)
-        if(inEditorMode) {
-            for(int i = 1; i < systems.size(); i++) {
-                this.systems.get(i).setActiveState(false);
+
+        this.world = new World();
+        // The systems create their own entities, e.g. the camera of the graphics system.
+        World previous = this.world.bind();
+        try {
+            // Systems setup.
+            this.systems = new LinkedList<>();
+            // Without a window there is no GL context nor audio device: stand-ins take the same places. The input
+            // system still walks its listeners, with a mouse that never moves.
+            this.systems.add(this.headless ? new HeadlessGraphicsSystem() : new GraphicsSystem(this.window));
+            this.systems.add(new InputSystem(window, this.world.getMessageQueue()));
+            this.systems.add(new PhysicsSystem());
+            // The first 3 systems must keep this order.
+            this.systems.add(new LogicSystem());
+            this.systems.add(this.headless ? new RecordingSystem(SoundComponent.class) : new SoundSystem());
+            this.systems.add(new ScriptingSystem());
+
+            // Check the current mode (if the editor is running)
+            if(inEditorMode) {
+                for(int i = 1; i < systems.size(); i++) {
+                    this.systems.get(i).setActiveState(false);
+                }
             }
+
+            this.world.setSystems(this.systems);
+        } finally {
+            World.unbind(previous);
         }
 
-        // Resources setup.
-        this.metadataManager = MetadataManager.getInstance();
+        Profiler profiler = this.world.getProfiler();
+        this.inputSection = profiler.getSection(this.systems.get(1).getName());
+        this.graphicsSection = profiler.getSection(this.systems.get(0).getName());
+        this.windowSection = profiler.getSection("Window.update");
+        this.publishSection = profiler.getSection("SceneSnapshotBuffer.publish");
+    }
+
+    /**
+     * Create an engine without window, GL context nor audio device, e.g. to run the simulation on a server or
+     * to benchmark it. Graphics and sound are replaced by stand-ins that only record what they would do, and the
+     * input system runs without devices.
+     * By default the loop runs one update per loop, as fast as possible: see setRealTime and getFramePacer.
+     * @return the headless engine.
+     */
+    public static GameEngine createHeadless() {
+        GameEngine engine = new GameEngine(null, false);
+        engine.realTime = false;
+        engine.framePacer.setMode(FramePacer.Mode.UNCAPPED);
+
+        return engine;
     }
 
     public void start() {
@@ -89,6 +188,7 @@ public class GameEngine implements Runnable {
 
     @Override
     public void run() {
+        this.world.bind();
         try {
             System.out.println("Metenorage game engine started...");
 
@@ -102,30 +202,50 @@ public class GameEngine implements Runnable {
     }
 
     private void initialize() throws Exception {
-        window.initialize();
+        if(this.renderThreadEnabled) {
+            // The window and its events stay on this thread. The render thread is handed the GL context:
+            // materials and graphics are created there.
+            window.initialize();
+            glfwMakeContextCurrent(NULL);
+            this.renderThread = new RenderThread(this.world, this.window, (GraphicsSystem) systems.get(0),
+                    this.world.getMetadataManager().getMaterials(), this.snapshotBuffer, this.framePacer);
+            this.renderThread.start();
+            this.renderThread.awaitInitialization();
+        } else if(!this.headless) {
+            window.initialize();
+            framePacer.applySwapInterval(window);
+
+            // Initialize materials
+            for (Material material : this.world.getMetadataManager().getMaterials()) {
+                material.initialize();
+            }
+        }
         timer.initialize();
 
-        // Initialize materials
-        for (Material material : this.metadataManager.getMaterials()) {
-            material.initialize();
-        }
         // Initialize scripts
-        for (ScriptFile scriptFile : this.metadataManager.getScriptFile()) {
+        for (ScriptFile scriptFile : this.world.getMetadataManager().getScriptFile()) {
             scriptFile.loadScript();
         }
 
-        for(GameSystem system : this.systems) {
-            if(system.isActive() || (system.getClass() == InputSystem.class)) {
-                system.initialize();
-            }
+        if(!this.renderThreadEnabled && systems.get(0).isActive()) {
+            systems.get(0).initialize();
         }
+        // The input system is initialized even when inactive.
+        systems.get(1).initialize();
+        this.world.initializeSystems();
     }
 
     /**
      * Delegates the input handling to the input handling system.
      */
     protected void handleInput() {
-        systems.get(1).iterate(this.metadataManager.getEntities());
+        SystemIterateEvent event = Events.ENABLED ? new SystemIterateEvent() : null;
+        if(event != null)
+            event.begin();
+        long start = getProfiler().start();
+        systems.get(1).iterate(this.world.getMetadataManager().getEntities());
+        getProfiler().stop(this.inputSection, start);
+        commit(event, systems.get(1));
     }
 
     /**
@@ -133,28 +253,73 @@ public class GameEngine implements Runnable {
      * @param timeStep The theoretical time step between each update.
      */
     protected void update(float timeStep) {
-        for(int i = 3; i < systems.size() ; i++) {
-            if(systems.get(i).isActive()) {
-                systems.get(i).iterate(this.metadataManager.getEntities());
-            }
-        }
-        // Special case of the physic system that need timeStep in iterate.
-        if(systems.get(2).isActive()) {
-            ((PhysicsSystem) systems.get(2)).iterate(this.metadataManager.getEntities(), timeStep);
-        }
-        messageQueue.dispatch();
+        // Independent systems run concurrently, see getStageTimings.
+        this.world.update(timeStep);
+    }
+
+    /**
+     * @return the duration of every stage of the last update, in nanoseconds.
+     */
+    public long[] getStageTimings() {
+        return this.world.getStageTimings();
     }
 
     /**
      * Delegates the rendering to the graphics system, and then updates the window.
      */
     protected void render() {
-        window.update();
+        if(this.renderThreadEnabled) {
+            // Events are polled by the thread owning the window, the buffers are swapped by the render thread.
+            long start = getProfiler().start();
+            glfwPollEvents();
+            getProfiler().stop(this.windowSection, start);
+            // Hand the frame over to the render thread and go on with the next update.
+            ((GraphicsSystem) systems.get(0)).captureSnapshot(this.snapshotBuffer.getBack());
+            // Time spent waiting for the render thread to be done with the previous frame.
+            start = getProfiler().start();
+            try {
+                this.snapshotBuffer.publish();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            getProfiler().stop(this.publishSection, start);
+            return;
+        }
+
+        if(!this.headless) {
+            long start = getProfiler().start();
+            window.update();
+            getProfiler().stop(this.windowSection, start);
+        }
         if(systems.get(0).isActive()) {
-            systems.get(0).iterate(this.metadataManager.getEntities());
+            SystemIterateEvent event = Events.ENABLED ? new SystemIterateEvent() : null;
+            if(event != null)
+                event.begin();
+            long start = getProfiler().start();
+            systems.get(0).iterate(this.world.getMetadataManager().getEntities());
+            getProfiler().stop(this.graphicsSection, start);
+            commit(event, systems.get(0));
+        }
+    }
+
+    private static void commit(SystemIterateEvent event, GameSystem system) {
+        if(event != null && event.shouldCommit()) {
+            event.system = system.getName();
+            event.commit();
         }
     }
 
+    /**
+     * Render on a dedicated thread owning the GL context, while the game loop thread runs the simulation.
+     * Each update ends with a snapshot of the scene, drawn by the render thread while the next update runs.
+     * Must be called before start.
+     * @param enabled whether the render thread is used. Disabled by default.
+     */
+    public void setRenderThreadEnabled(boolean enabled) {
+        // A headless engine has no GL context to hand over.
+        this.renderThreadEnabled = enabled && !this.headless;
+    }
+
     /**
      * Delegates the control of the sounds to the sound system.
      */
@@ -172,11 +337,16 @@ public class GameEngine implements Runnable {
     private void cleanUp() {
         // TODO clean up les sources pour eviter l'erreur a chaque fois.
         // Clean up song from the engine
-        for (Sound s : this.metadataManager.getSounds()) {
-            alDeleteBuffers(s.getUniqueID());
+        if(!this.headless) {
+            for (Sound s : this.world.getMetadataManager().getSounds()) {
+                alDeleteBuffers(s.getBufferId());
+            }
         }
-        // Clean all the systems
+        // Clean all the systems. The render thread cleans the graphics system up itself.
         for(GameSystem system : this.systems) {
+            if(this.renderThreadEnabled && system == systems.get(0))
+                continue;
+
             if(system.isActive()) {
                 system.cleanUp();
             }
@@ -187,71 +357,197 @@ public class GameEngine implements Runnable {
      * Core function of the game engine.
      */
     private void gameLoop() {
-        double previousLoopTime = Timer.getTime();
-        double timeSteps = 0;
+        // Times are kept in nanoseconds.
+        long previousLoopTime = Timer.getTime();
+        long timeSteps = 0;
 
-        while (!window.windowShouldClose()) {
+        long loops = 0;
+
+        this.running = true;
+        while (!shouldStop(loops)) {
             // Keep track of the elapsed time and time steps.
-            double currentLoopStartTime = Timer.getTime();
-            double elapsedTime = currentLoopStartTime - previousLoopTime;
+            FrameEvent frameEvent = Events.ENABLED ? new FrameEvent() : null;
+            if(frameEvent != null)
+                frameEvent.begin();
+            long currentLoopStartTime = Timer.getTime();
+            long elapsedTime = currentLoopStartTime - previousLoopTime;
             previousLoopTime = currentLoopStartTime;
-            timeSteps += elapsedTime;
+            long updateTime = Timer.toNanoseconds(timePerUpdate);
+            // Out of real time, each loop simulates a single step, however long it took.
+            timeSteps += realTime ? elapsedTime : updateTime;
+            loops++;
 
             handleInput();
 
-            while (timeSteps >= timePerUpdate) {
-                update((float) timeSteps);
-                timeSteps -= timePerUpdate;
+            // Fixed time step: every update simulates exactly timePerUpdate.
+            int updates = 0;
+            while (timeSteps >= updateTime && updates < maxUpdatesPerLoop) {
+                if(interpolationEnabled) {
+                    this.world.getTransformStore().savePreviousState();
+                }
+                update(timePerUpdate);
+                timeSteps -= updateTime;
+                updates++;
+            }
+            // Too late to catch up: drop the remaining steps rather than spiralling.
+            if (timeSteps >= updateTime) {
+                timeSteps %= updateTime;
             }
 
+            // Draw the scene between the last two updates, as far as the remaining time goes.
+            ((GraphicsSystem) systems.get(0)).setInterpolationAlpha(
+                    interpolationEnabled ? (float) timeSteps / updateTime : 1);
+
             //playSounds();
             //executeScripts();
 
+            // Sync point: no system is iterating, structural changes can be applied.
+            this.world.playbackCommands();
+
             render();
-            synchronizeRenderer(currentLoopStartTime);
+            framePacer.sync(currentLoopStartTime);
+            getProfiler().endFrame(framePacer.getLastFrameTime());
+
+            if(frameEvent != null && frameEvent.shouldCommit()) {
+                frameEvent.frame = loops;
+                frameEvent.updates = updates;
+                frameEvent.commit();
+            }
+        }
+        this.running = false;
+
+        if(this.renderThread != null) {
+            this.snapshotBuffer.close();
+            try {
+                this.renderThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
 
         cleanUp();
     }
 
+    private boolean shouldStop(long loops) {
+        return this.stopRequested || (this.loopsLimit >= 0 && loops >= this.loopsLimit)
+                || (!this.headless && window.windowShouldClose());
+    }
+
     /**
-     * Avoids exhausting the system resources by controlling the rendering rate independently..
-     *
-     * @param currentLoopStartTime The time at with the current loop started.
+     * Ask the game loop to end after the current loop. The engine is then cleaned up.
      */
-    private void synchronizeRenderer(double currentLoopStartTime) {
-        while(Timer.getTime() < currentLoopStartTime + this.timePerRendering) {
-            try {
-                Thread.sleep(1);
-            } catch (InterruptedException ignored) {}
-        }
+    public void stop() {
+        this.stopRequested = true;
+    }
+
+    /**
+     * Stop the engine after a given number of loops, e.g. for reproducible benchmarks.
+     * @param loopsLimit number of loops to run, or -1 to run until the window is closed or stop is called.
+     */
+    public void setLoopsLimit(long loopsLimit) {
+        this.loopsLimit = loopsLimit;
+    }
+
+    /**
+     * @param realTime whether updates follow the wall clock. When false, every loop runs exactly one update:
+     * the simulation is reproducible and runs as fast as the frame pacer lets it.
+     */
+    public void setRealTime(boolean realTime) {
+        this.realTime = realTime;
+    }
+
+    public boolean isHeadless() {
+        return this.headless;
+    }
+
+    /**
+     * @return the world of the engine. Several engines, each with its own world, can run in the same JVM.
+     */
+    public World getWorld() {
+        return this.world;
+    }
+
+    /**
+     * @return the profiler of the engine: percentiles of every system, of the message dispatch and of the buffer
+     * swap, and the breakdown of the last frames.
+     */
+    public Profiler getProfiler() {
+        return this.world.getProfiler();
+    }
+
+    /**
+     * @return the systems of the engine, in their fixed order: graphics, input, physics, logic, sound, scripting.
+     */
+    public List<GameSystem> getSystems() {
+        return this.systems;
     }
 
+    /**
+     * Rate of the fixed updates. Systems are updated at this rate unless given a lower one of their own, e.g.
+     * getWorld().getPhysicsSystem().setUpdatesPerSecond(30): see GameSystem.setUpdatesPerSecond.
+     * @param updatesPerSecond number of updates per second, the highest rate any system can be updated at.
+     */
     public void setUpdatesPerSecond(int updatesPerSecond) {
         this.timePerUpdate = 1f / updatesPerSecond;
     }
 
     public void setRenderingsPerSecond(int renderingsPerSecond) {
-        this.timePerRendering = 1f / renderingsPerSecond;
+        this.framePacer.setTargetFramesPerSecond(renderingsPerSecond);
     }
 
+    /**
+     * @return the pacer of the loop, to change its mode or read the achieved frame times.
+     */
+    public FramePacer getFramePacer() {
+        return this.framePacer;
+    }
+
+    /**
+     * @param maxUpdatesPerLoop maximum number of updates run in a loop to catch up after a slow frame.
+     */
+    public void setMaxUpdatesPerLoop(int maxUpdatesPerLoop) {
+        this.maxUpdatesPerLoop = maxUpdatesPerLoop;
+    }
+
+    /**
+     * @param interpolationEnabled whether the rendering blends the transforms between the last two updates.
+     * When disabled, the last update is drawn as is.
+     */
+    public void setInterpolationEnabled(boolean interpolationEnabled) {
+        this.interpolationEnabled = interpolationEnabled;
+    }
+
+    /**
+     * Add an entity to the engine. While the game loop runs, the entity is only added at the next sync point.
+     * @param entity entity to add.
+     */
     public void addEntity(Entity entity) {
-        this.metadataManager.registerEntity(entity);
-        ((PhysicsSystem)this.systems.get(2)).addEntity(entity);
+        if(this.running) {
+            this.world.getCommandBuffer().createEntity(entity);
+        } else {
+            this.world.registerEntity(entity);
+        }
     }
 
+    /**
+     * Remove an entity from the engine. While the game loop runs, the entity is only removed at the next sync point.
+     * @param entity entity to remove.
+     */
     public void removeEntity(Entity entity) {
-        this.metadataManager.removeEntity(entity);
-        ((PhysicsSystem)this.systems.get(2)).removeEntity(entity);
+        if(this.running) {
+            this.world.getCommandBuffer().removeEntity(entity);
+        } else {
+            this.world.unregisterEntity(entity);
+        }
     }
 
     public void addMaterial(Material material) {
-        this.metadataManager.registerMaterial(material);
+        this.world.getMetadataManager().registerMaterial(material);
     }
 
-    public void addSound(Sound sound) { this.metadataManager.registerSound(sound); }
+    public void addSound(Sound sound) { this.world.getMetadataManager().registerSound(sound); }
 
-    public void addScript(ScriptFile script) { this.metadataManager.registerScript(script); }
+    public void addScript(ScriptFile script) { this.world.getMetadataManager().registerScript(script); }
 
     public void setCamera(Camera camera) {
         ((GraphicsSystem)this.systems.get(0)).setCamera(camera);
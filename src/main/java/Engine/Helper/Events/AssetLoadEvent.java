@@ -0,0 +1,23 @@
+package Engine.Helper.Events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning the loading of an asset from a file.
+ */
+@Name("Metenorage.AssetLoad")
+@Label("Asset Load")
+@Category({"Metenorage", "Assets"})
+@Description("An asset loaded from a file, e.g. a mesh or a texture")
+public class AssetLoadEvent extends Event {
+
+    @Label("Type")
+    public String type;
+
+    @Label("File")
+    public String file;
+}
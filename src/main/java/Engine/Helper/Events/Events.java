@@ -0,0 +1,23 @@
+package Engine.Helper.Events;
+
+/**
+ * Tells whether the flight recorder events can be created. The jdk.jfr API is missing from older Java 8
+ * runtimes: the event classes of this package must then never be loaded, so every event is created behind
+ * a check of ENABLED and left null otherwise.
+ */
+public final class Events {
+
+    public static final boolean ENABLED = isRecorderAvailable();
+
+    private Events() {
+    }
+
+    private static boolean isRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, Events.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
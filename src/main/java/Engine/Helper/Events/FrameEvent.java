@@ -0,0 +1,26 @@
+package Engine.Helper.Events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning a loop of the engine, from its start to the end of its frame pacing.
+ */
+@Name("Metenorage.Frame")
+@Label("Frame")
+@Category({"Metenorage", "Loop"})
+@Description("A loop of the engine: input, updates, sync point, rendering and frame pacing")
+@StackTrace(false)
+public class FrameEvent extends Event {
+
+    @Label("Frame")
+    public long frame;
+
+    @Label("Updates")
+    @Description("Number of fixed time step updates run in the frame")
+    public int updates;
+}
@@ -0,0 +1,35 @@
+package Engine.Helper.Events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning the delivery of the messages queued during an update.
+ */
+@Name("Metenorage.MessageDispatch")
+@Label("Message Dispatch")
+@Category({"Metenorage", "Messaging"})
+@Description("A batch of messages delivered by the message queue")
+@StackTrace(false)
+public class MessageDispatchEvent extends Event {
+
+    @Label("Messages")
+    @Description("Number of messages taken from the queue")
+    public int messages;
+
+    @Label("Delivered")
+    @Description("Number of messages whose receiver was found")
+    public int delivered;
+
+    @Label("Coalesced")
+    @Description("Number of messages merged into another one before delivery")
+    public int coalesced;
+
+    @Label("Rejected")
+    @Description("Number of messages refused so far because the queue was full")
+    public long rejected;
+}
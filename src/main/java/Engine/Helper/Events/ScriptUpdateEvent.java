@@ -0,0 +1,25 @@
+package Engine.Helper.Events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning a call to the update method of a script.
+ */
+@Name("Metenorage.ScriptUpdate")
+@Label("Script Update")
+@Category({"Metenorage", "Scripts"})
+@Description("A call to the update method of a script")
+@StackTrace(false)
+public class ScriptUpdateEvent extends Event {
+
+    @Label("Script")
+    public String script;
+
+    @Label("Entity")
+    public String entity;
+}
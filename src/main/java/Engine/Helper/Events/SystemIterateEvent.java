@@ -0,0 +1,22 @@
+package Engine.Helper.Events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning an iteration of a system.
+ */
+@Name("Metenorage.SystemIterate")
+@Label("System Iterate")
+@Category({"Metenorage", "Systems"})
+@Description("An iteration of a game system over its components")
+@StackTrace(false)
+public class SystemIterateEvent extends Event {
+
+    @Label("System")
+    public String system;
+}
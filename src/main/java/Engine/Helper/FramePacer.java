@@ -0,0 +1,123 @@
+package Engine.Helper;
+
+import Engine.Window;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Keeps the game loop at a target frame rate. The thread is parked for most of the remaining frame time, then
+ * spins for the last fraction of a millisecond, since parking alone may overshoot by several milliseconds.
+ * The pacing can also be left to the vertical synchronization of the window, or disabled.
+ */
+public class FramePacer {
+
+    public enum Mode {
+        /**
+         * Wait until the target frame time is spent.
+         */
+        CAPPED,
+        /**
+         * Never wait, and disable the vertical synchronization.
+         */
+        UNCAPPED,
+        /**
+         * Never wait: buffer swaps of the window wait for the vertical synchronization.
+         */
+        VSYNC
+    }
+
+    /**
+     * Below this remaining time, the pacer spins instead of parking.
+     */
+    private static final long SPIN_THRESHOLD = 500000L;
+
+    /**
+     * Weight of the last frame in the average frame time.
+     */
+    private static final double AVERAGE_WEIGHT = 0.05;
+
+    private Mode mode = Mode.CAPPED;
+
+    private long targetFrameTime;
+
+    private long previousFrameEnd = -1;
+
+    private long lastFrameTime;
+
+    private double averageFrameTime;
+
+    public FramePacer(int framesPerSecond) {
+        setTargetFramesPerSecond(framesPerSecond);
+    }
+
+    /**
+     * Wait for the end of the current frame, depending on the mode.
+     * @param frameStart time at which the frame started, in nanoseconds.
+     */
+    public void sync(long frameStart) {
+        if(this.mode == Mode.CAPPED) {
+            long deadline = frameStart + this.targetFrameTime;
+            long remaining;
+            while((remaining = deadline - Timer.getTime()) > 0) {
+                if(remaining > SPIN_THRESHOLD) {
+                    LockSupport.parkNanos(remaining - SPIN_THRESHOLD);
+                }
+            }
+        }
+
+        // Measure the achieved frame time, from the end of a frame to the end of the next one.
+        long frameEnd = Timer.getTime();
+        if(this.previousFrameEnd >= 0) {
+            this.lastFrameTime = frameEnd - this.previousFrameEnd;
+            this.averageFrameTime = this.averageFrameTime == 0 ? this.lastFrameTime
+                    : this.averageFrameTime + (this.lastFrameTime - this.averageFrameTime) * AVERAGE_WEIGHT;
+        }
+        this.previousFrameEnd = frameEnd;
+    }
+
+    /**
+     * Set the vertical synchronization of the window according to the mode. Must be called from the thread
+     * owning the GL context, after the window is initialized. In capped mode, the setting of the window is kept.
+     * @param window window whose buffer swaps are paced.
+     */
+    public void applySwapInterval(Window window) {
+        if(this.mode == Mode.VSYNC) {
+            window.setVSync(true);
+        } else if(this.mode == Mode.UNCAPPED) {
+            window.setVSync(false);
+        }
+    }
+
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public void setTargetFramesPerSecond(int framesPerSecond) {
+        this.targetFrameTime = Timer.NANOSECONDS_PER_SECOND / framesPerSecond;
+    }
+
+    /**
+     * @return the target frame time, in nanoseconds.
+     */
+    public long getTargetFrameTime() {
+        return this.targetFrameTime;
+    }
+
+    /**
+     * @return the duration of the last frame, in nanoseconds.
+     */
+    public long getLastFrameTime() {
+        return this.lastFrameTime;
+    }
+
+    /**
+     * @return the moving average of the frame time, in nanoseconds.
+     */
+    public double getAverageFrameTime() {
+        return this.averageFrameTime;
+    }
+}
@@ -0,0 +1,121 @@
+package Engine.Helper;
+
+import java.util.Arrays;
+
+/**
+ * Hands out generational handles: the low bits of a handle are an index, reused once the handle is released,
+ * and the high bits are the generation of that index. A handle kept after its release no longer matches the
+ * generation of its index, so stale references can be detected instead of silently hitting a new owner.
+ * Indices being dense, the handles can be used to index plain arrays.
+ */
+public class HandleAllocator {
+
+    public static final int INDEX_BITS = 24;
+
+    public static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+
+    /**
+     * Seven bits of generation keep the handles positive. Generations wrap around after 128 reuses of an index.
+     */
+    private static final int GENERATION_MASK = 0x7F;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Current generation of every index ever handed out.
+     */
+    private int[] generations;
+
+    private boolean[] alive;
+
+    private int[] freeIndices;
+
+    private int freeIndicesCount;
+
+    /**
+     * Number of indices ever handed out.
+     */
+    private int size;
+
+    public HandleAllocator() {
+        this.generations = new int[INITIAL_CAPACITY];
+        this.alive = new boolean[INITIAL_CAPACITY];
+        this.freeIndices = new int[INITIAL_CAPACITY];
+        this.freeIndicesCount = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Extract the index part of a handle.
+     * @param handle handle given by an allocator.
+     * @return the index of the handle, to be used in dense arrays.
+     */
+    public static int indexOf(int handle) {
+        return handle & INDEX_MASK;
+    }
+
+    /**
+     * Extract the generation part of a handle.
+     * @param handle handle given by an allocator.
+     * @return the generation of the handle.
+     */
+    public static int generationOf(int handle) {
+        return (handle >>> INDEX_BITS) & GENERATION_MASK;
+    }
+
+    /**
+     * Hand out a new handle, reusing a released index if possible.
+     * @return the new handle.
+     */
+    public synchronized int allocate() {
+        int index;
+
+        if(this.freeIndicesCount > 0) {
+            index = this.freeIndices[--this.freeIndicesCount];
+        } else {
+            if(this.size > INDEX_MASK)
+                throw new IllegalStateException("HandleAllocator: no more handles available.");
+
+            if(this.size == this.generations.length) {
+                this.generations = Arrays.copyOf(this.generations, this.generations.length * 2);
+                this.alive = Arrays.copyOf(this.alive, this.generations.length);
+            }
+            index = this.size++;
+        }
+        this.alive[index] = true;
+
+        return (this.generations[index] << INDEX_BITS) | index;
+    }
+
+    /**
+     * Give a handle back. Its index will be reused with a new generation.
+     * @param handle handle to release.
+     * @return true if the handle was alive, false if it was already released.
+     */
+    public synchronized boolean release(int handle) {
+        if(!isAlive(handle))
+            return false;
+
+        int index = indexOf(handle);
+        this.generations[index] = (this.generations[index] + 1) & GENERATION_MASK;
+        this.alive[index] = false;
+
+        if(this.freeIndicesCount == this.freeIndices.length) {
+            this.freeIndices = Arrays.copyOf(this.freeIndices, this.freeIndices.length * 2);
+        }
+        this.freeIndices[this.freeIndicesCount++] = index;
+
+        return true;
+    }
+
+    /**
+     * @param handle handle to check.
+     * @return true if the handle has been handed out and not released since.
+     */
+    public synchronized boolean isAlive(int handle) {
+        int index = indexOf(handle);
+
+        return handle >= 0 && index < this.size && this.alive[index]
+                && this.generations[index] == generationOf(handle);
+    }
+}
@@ -0,0 +1,112 @@
+package Engine.Helper;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations, in nanoseconds. Buckets are log-linear, as in HDR histograms: every power of
+ * two is split in SUB_BUCKETS buckets, so any value is known within about 3% whatever its magnitude. Recording
+ * takes a few atomic increments and never allocates, so it can be done from any thread, at any rate.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Values below SUB_BUCKETS have a bucket each, then every power of two up to 2^62 has SUB_BUCKETS buckets.
+     */
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong sum = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param value a duration, in nanoseconds. Negative durations are counted as 0.
+     */
+    public void record(long value) {
+        if(value < 0)
+            value = 0;
+
+        this.counts.incrementAndGet(bucketOf(value));
+        this.count.incrementAndGet();
+        this.sum.addAndGet(value);
+
+        long currentMax;
+        while(value > (currentMax = this.max.get())) {
+            if(this.max.compareAndSet(currentMax, value))
+                break;
+        }
+    }
+
+    /**
+     * @param percentile percentile to read, between 0 and 100.
+     * @return the smallest recorded value such that the given percentage of the values are lower or equal,
+     * within the precision of the buckets, or 0 if nothing has been recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = this.count.get();
+        if(total == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * total));
+        long cumulated = 0;
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            cumulated += this.counts.get(bucket);
+            if(cumulated >= target)
+                return Math.min(highestValueOf(bucket), this.max.get());
+        }
+        return this.max.get();
+    }
+
+    public long getCount() {
+        return this.count.get();
+    }
+
+    public long getMax() {
+        return this.max.get();
+    }
+
+    public double getMean() {
+        long total = this.count.get();
+        return total == 0 ? 0 : (double) this.sum.get() / total;
+    }
+
+    /**
+     * Forget every recorded value. Values recorded meanwhile by other threads may be partially kept.
+     */
+    public void reset() {
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            this.counts.set(bucket, 0);
+        }
+        this.count.set(0);
+        this.sum.set(0);
+        this.max.set(0);
+    }
+
+    private static int bucketOf(long value) {
+        if(value < SUB_BUCKETS)
+            return (int) value;
+
+        // Keep the highest SUB_BUCKET_BITS bits after the leading one.
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueOf(int bucket) {
+        if(bucket < SUB_BUCKETS)
+            return bucket;
+
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
@@ -1,5 +1,7 @@
 package Engine.Helper.Loader;
 
+import Engine.Helper.Events.AssetLoadEvent;
+import Engine.Helper.Events.Events;
 import Engine.System.Graphics.Component.Mesh3D;
 import Engine.Utils;
 import org.joml.Vector2f;
@@ -73,6 +75,21 @@ public class OBJLoader {
      * @throws Exception The file could not be found.
      */
     public static Mesh3D loadMesh(String fileName) throws Exception {
+        AssetLoadEvent event = Events.ENABLED ? new AssetLoadEvent() : null;
+        if(event != null)
+            event.begin();
+
+        Mesh3D mesh = parseMesh(fileName);
+
+        if(event != null && event.shouldCommit()) {
+            event.type = "Mesh";
+            event.file = fileName;
+            event.commit();
+        }
+        return mesh;
+    }
+
+    private static Mesh3D parseMesh(String fileName) throws Exception {
         // Read all the lines from the source object file.
         List<String> lines = Utils.readAllLines(fileName);
 
@@ -0,0 +1,219 @@
+package Engine.Helper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures where the time of the frames goes. Every instrumented part of the loop (a system, the message
+ * dispatch, the buffer swap...) records its durations in a section: a histogram giving its percentiles since the
+ * start, and the time it took during each of the last HISTORY frames.
+ *
+ * Sections can be recorded from any thread without locking. Timing a section costs two reads of the clock and
+ * a few atomic increments, so the profiler is enabled by default.
+ */
+public class Profiler {
+
+    /**
+     * Number of frames kept in the rolling breakdown.
+     */
+    public static final int HISTORY = 120;
+
+    private static final int MAX_SECTIONS = 64;
+
+    public static class Section {
+
+        private final String name;
+
+        private final int index;
+
+        private final Histogram histogram = new Histogram();
+
+        // Time spent in the section since the beginning of the current frame.
+        private final AtomicLong frameTime = new AtomicLong();
+
+        private Section(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+
+        /**
+         * @param duration time spent in the section, in nanoseconds.
+         */
+        public void record(long duration) {
+            this.histogram.record(duration);
+            this.frameTime.addAndGet(duration);
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public Histogram getHistogram() {
+            return this.histogram;
+        }
+    }
+
+    private volatile boolean enabled = true;
+
+    private final Map<String, Section> sectionsByName = new LinkedHashMap<>();
+
+    private volatile Section[] sections = new Section[0];
+
+    private final Histogram frameTimes = new Histogram();
+
+    /**
+     * Time spent in every section during the last frames. Row frame % HISTORY holds the given frame.
+     */
+    private final long[][] breakdown = new long[HISTORY][MAX_SECTIONS];
+
+    private final long[] breakdownFrameTimes = new long[HISTORY];
+
+    // Number of frames ended so far.
+    private volatile long frames = 0;
+
+    /**
+     * @param name name of the section.
+     * @return the section of the given name, created on the first call.
+     */
+    public synchronized Section getSection(String name) {
+        Section section = this.sectionsByName.get(name);
+        if(section == null) {
+            if(this.sectionsByName.size() >= MAX_SECTIONS)
+                throw new IllegalStateException("Too many profiler sections: " + name);
+
+            section = new Section(name, this.sectionsByName.size());
+            this.sectionsByName.put(name, section);
+
+            Section[] sections = new Section[this.sectionsByName.size()];
+            this.sections = this.sectionsByName.values().toArray(sections);
+        }
+        return section;
+    }
+
+    /**
+     * @return the time to give to stop, or 0 if the profiler is disabled.
+     */
+    public long start() {
+        return this.enabled ? Timer.getTime() : 0;
+    }
+
+    /**
+     * Record the time spent in a section since start was called.
+     * @param section section to record.
+     * @param start value returned by start.
+     */
+    public void stop(Section section, long start) {
+        if(start != 0 && this.enabled) {
+            section.record(Timer.getTime() - start);
+        }
+    }
+
+    /**
+     * Close the current frame: the time spent in every section is moved to the rolling breakdown.
+     * Must be called by a single thread, once per frame.
+     * @param frameTime duration of the frame, in nanoseconds.
+     */
+    public void endFrame(long frameTime) {
+        if(!this.enabled)
+            return;
+
+        this.frameTimes.record(frameTime);
+
+        long frame = this.frames;
+        int row = (int) (frame % HISTORY);
+        Section[] sections = this.sections;
+        for(Section section : sections) {
+            this.breakdown[row][section.index] = section.frameTime.getAndSet(0);
+        }
+        this.breakdownFrameTimes[row] = frameTime;
+        this.frames = frame + 1;
+    }
+
+    /**
+     * Average time spent in every section during the last frames. Read while frames go on, the values may
+     * mix two consecutive frames.
+     * @return the average time of every section, in nanoseconds, by section name. The "Frame" entry holds the
+     * average duration of the frames.
+     */
+    public Map<String, Double> getFrameBreakdown() {
+        Map<String, Double> averages = new LinkedHashMap<>();
+        long frames = this.frames;
+        int count = (int) Math.min(frames, HISTORY);
+        Section[] sections = this.sections;
+
+        double frameTime = 0;
+        for(int row = 0; row < count; row++) {
+            frameTime += this.breakdownFrameTimes[row];
+        }
+        averages.put("Frame", count == 0 ? 0 : frameTime / count);
+
+        for(Section section : sections) {
+            double time = 0;
+            for(int row = 0; row < count; row++) {
+                time += this.breakdown[row][section.index];
+            }
+            averages.put(section.getName(), count == 0 ? 0 : time / count);
+        }
+        return averages;
+    }
+
+    /**
+     * @return the sections, in the order they were created.
+     */
+    public List<Section> getSections() {
+        List<Section> sections = new ArrayList<>();
+        Collections.addAll(sections, this.sections);
+        return sections;
+    }
+
+    /**
+     * @return the histogram of the frame times given to endFrame.
+     */
+    public Histogram getFrameTimes() {
+        return this.frameTimes;
+    }
+
+    /**
+     * @return a table of the p50, p99 and maximum of the frames and of every section, in milliseconds.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-28s %10s %10s %10s %10s%n", "Section", "Count", "p50 (ms)", "p99 (ms)",
+                "Max (ms)"));
+        appendLine(report, "Frame", this.frameTimes);
+        for(Section section : this.sections) {
+            appendLine(report, section.getName(), section.getHistogram());
+        }
+        return report.toString();
+    }
+
+    private static void appendLine(StringBuilder report, String name, Histogram histogram) {
+        report.append(String.format("%-28s %10d %10.3f %10.3f %10.3f%n", name, histogram.getCount(),
+                histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getMax() / 1e6));
+    }
+
+    /**
+     * Forget everything recorded so far, e.g. once the game is warmed up.
+     */
+    public void reset() {
+        this.frameTimes.reset();
+        for(Section section : this.sections) {
+            section.getHistogram().reset();
+            section.frameTime.set(0);
+        }
+        this.frames = 0;
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
@@ -1,36 +1,56 @@
 package Engine.Helper;
 
 public class Timer {
+
+    public static final long NANOSECONDS_PER_SECOND = 1000000000L;
+
     /*
-     * The instant at which last loop occurred.
+     * The instant at which last loop occurred, in nanoseconds.
+     * Kept as an integer so that precision does not drift over long sessions.
+     */
+    private long lastLoopTime;
+
+    /**
+     * @return The current system time, in nanoseconds.
      */
-    private double lastLoopTime;
+    public static long getTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * @param nanoseconds a duration in nanoseconds.
+     * @return the same duration in seconds.
+     */
+    public static double toSeconds(long nanoseconds) {
+        return nanoseconds / (double) NANOSECONDS_PER_SECOND;
+    }
 
     /**
-     * @return The current system time.
+     * @param seconds a duration in seconds.
+     * @return the same duration in nanoseconds.
      */
-    public static double getTime() {
-        return System.nanoTime() / 1000000000.0;
+    public static long toNanoseconds(double seconds) {
+        return Math.round(seconds * NANOSECONDS_PER_SECOND);
     }
 
     /**
      * Computes the time since last loop.
      *
-     * @return The elapsed time since last loop occurrence.
+     * @return The elapsed time since last loop occurrence, in seconds.
      */
     public float getElapsedTime() {
-        double time = getTime();
-        float elapsedTime = (float) (time - lastLoopTime);
+        long time = getTime();
+        float elapsedTime = (float) toSeconds(time - lastLoopTime);
         lastLoopTime = time;
 
         return elapsedTime;
     }
 
-    public double getLastLoopTime() {
+    public long getLastLoopTime() {
         return lastLoopTime;
     }
 
     public void initialize() {
         lastLoopTime = getTime();
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,9 @@
 package Engine.Main;
 
-import Engine.GameEngine;
+import Engine.System.Component.Archetype;
 import Engine.System.Component.Component;
 import Engine.System.Component.Transform;
+import Engine.World;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -24,9 +25,17 @@ public class Entity extends Metadata {
     //List of components attached to the entity.
     private List<Component> components;
 
+    // Archetype in which the entity is stored once registered, and its row inside it.
+    private Archetype archetype;
+
+    private int archetypeRow = -1;
+
+    // World the entity was created in.
+    private final World world;
 
     public Entity(String name) {
         super();
+        this.world = World.current();
         this.name = name;
         this.components = new ArrayList<Component>();
         this.transform = new Transform(this);
@@ -37,12 +46,21 @@ public class Entity extends Metadata {
     }
 
     public void addComponent(Component component) {
+        this.world.checkComponent(component);
         component.setEntity(this);
         this.components.add(component);
+        // Keep the archetype storage in sync once the entity is registered.
+        if(this.archetype != null)
+            this.world.getArchetypeManager().updateEntity(this);
     }
 
     public void removeComponent(Component component) {
-        this.components.remove(component);
+        if(this.components.remove(component) && this.archetype != null)
+            this.world.getArchetypeManager().updateEntity(this);
+    }
+
+    public World getWorld() {
+        return this.world;
     }
 
     public List<Component> getComponents() {
@@ -65,6 +83,19 @@ public class Entity extends Metadata {
         return this.transform;
     }
 
+    public Archetype getArchetype() {
+        return this.archetype;
+    }
+
+    public int getArchetypeRow() {
+        return this.archetypeRow;
+    }
+
+    public void setArchetype(Archetype archetype, int row) {
+        this.archetype = archetype;
+        this.archetypeRow = row;
+    }
+
     @Override
     public String toString() {
         return this.name != null ? this.name : super.toString();
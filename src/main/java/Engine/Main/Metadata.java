@@ -1,11 +1,18 @@
 package Engine.Main;
 
+import Engine.Helper.HandleAllocator;
+import Engine.World;
+
 /**
  * @author Gregoire Boiron
  */
 public abstract class Metadata {
 
-    private static int currentIDNumber = 0;
+    /**
+     * Hands out the IDs of the metadata of a world. IDs are generational handles: they can be used as indices in
+     * the tables of the MetadataManager and become stale once released.
+     */
+    private final HandleAllocator handles;
 
     /**
      * A unique ID used to identify the entity and its components.
@@ -13,10 +20,24 @@ public abstract class Metadata {
     protected int uniqueID;
 
     public Metadata() {
-        // Create a "ramdom" ID for the entity.
-        this.uniqueID = Metadata.currentIDNumber;
-        Metadata.currentIDNumber++;
+        this.handles = World.current().getEntityHandles();
+        this.uniqueID = this.handles.allocate();
     }
 
-    public Integer getUniqueID() { return this.uniqueID; }
+    public int getUniqueID() { return this.uniqueID; }
+
+    /**
+     * Give the ID back once the metadata has been removed from the engine. References still holding it are stale.
+     */
+    public void releaseUniqueID() {
+        this.handles.release(this.uniqueID);
+    }
+
+    /**
+     * Hand out a new ID if the current one has been released, e.g. when a removed entity is added again.
+     */
+    public void renewUniqueID() {
+        if(!this.handles.isAlive(this.uniqueID))
+            this.uniqueID = this.handles.allocate();
+    }
 }
@@ -5,6 +5,8 @@ import Engine.System.Scripting.BaseScript;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author Grégoire Boiron
@@ -20,6 +22,9 @@ public class ScriptFile extends Metadata {
     // Name of the script
     private String name;
 
+    // Methods already looked up, by name. Class.getMethod copies the method on every call.
+    private final Map<String, Method> methods = new HashMap<>();
+
     public ScriptFile() {
         this("");
     }
@@ -38,6 +43,7 @@ public class ScriptFile extends Metadata {
     public void loadScript() {
         try {
             this.scriptClass = (Class<BaseScript>)Class.forName("Game.Scripts." + this.name);
+            this.methods.clear();
         } catch (ClassNotFoundException e) {
             System.out.println("The class located at Game.Scripts." + name + " cannot be found.");
             e.printStackTrace();
@@ -73,8 +79,12 @@ public class ScriptFile extends Metadata {
 
     public void callSpecificVoidFunction(String name, Class<?>[] parameterTypesArray, Object[] arguments) {
         try {
-            // Find the method
-            Method currentMethod = this.scriptClass.getMethod(name, parameterTypesArray);
+            // Find the method. Script methods are not overloaded: the name is enough to tell them apart.
+            Method currentMethod = this.methods.get(name);
+            if (currentMethod == null) {
+                currentMethod = this.scriptClass.getMethod(name, parameterTypesArray);
+                this.methods.put(name, currentMethod);
+            }
 
             // Invoke the method
             if (arguments != null) {
@@ -19,6 +19,11 @@ public class Sound extends Metadata {
 
     private String name;
 
+    /**
+     * OpenAL buffer holding the samples of the sound. Kept apart from the unique ID, which is a handle.
+     */
+    private int bufferId;
+
     public Sound() {
         super();
         this.name = "";
@@ -36,14 +41,14 @@ public class Sound extends Metadata {
      * Load a sound to be register and use by the SoundSystem
      */
     public void loadSound() {
-        this.uniqueID = AL10.alGenBuffers();
+        this.bufferId = AL10.alGenBuffers();
         File audioFile = new File(this.pathSound);
         try {
             AudioInputStream audio = AudioSystem.getAudioInputStream(audioFile);
             WaveData wavFile = WaveData.create(audio);
-            AL10.alBufferData(this.uniqueID, wavFile.format, wavFile.data, wavFile.samplerate);
+            AL10.alBufferData(this.bufferId, wavFile.format, wavFile.data, wavFile.samplerate);
             wavFile.dispose();
-            System.out.println("Sound Buffer " + this.uniqueID + " create.");
+            System.out.println("Sound Buffer " + this.bufferId + " create.");
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -54,5 +59,6 @@ public class Sound extends Metadata {
 
     public String getPathSound() { return this.pathSound; }
     public String getName() { return this.name; }
+    public int getBufferId() { return this.bufferId; }
 
 }
@@ -0,0 +1,210 @@
+package Engine.Managers;
+
+import Engine.Main.Entity;
+import Engine.World;
+import Engine.System.Component.Archetype;
+import Engine.System.Component.Component;
+import Engine.System.ComponentIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stores the registered entities grouped by archetype, so that systems can walk the components they recognize
+ * without filtering every entity each frame.
+ */
+public class ArchetypeManager {
+
+    private Map<List<Class<? extends Component>>, Archetype> archetypes = new HashMap<>();
+
+    /**
+     * Archetypes matching a given component type, kept up to date when new archetypes are created.
+     */
+    private Map<Class<? extends Component>, List<Archetype>> matchingArchetypes = new HashMap<>();
+
+    /**
+     * Indices created so far, told when components leave them.
+     */
+    private List<ComponentIndex> indices = new ArrayList<>();
+
+    /**
+     * Entities whose components changed during a batch, moved once when the batch ends.
+     */
+    private Set<Entity> pendingEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private boolean batching = false;
+
+    /**
+     * @return the manager of the current world.
+     */
+    public static ArchetypeManager getInstance() {
+        return World.current().getArchetypeManager();
+    }
+
+    /**
+     * Store an entity in the archetype matching its current components.
+     * @param entity entity to store.
+     */
+    public void registerEntity(Entity entity) {
+        if(entity.getArchetype() != null) {
+            leaveArchetype(entity, false);
+        }
+
+        Archetype archetype = getArchetype(Archetype.signatureOf(entity));
+        entity.setArchetype(archetype, archetype.add(entity));
+    }
+
+    /**
+     * Move an entity to the archetype matching its new components.
+     * Should be called every time a component is added to or removed from a registered entity.
+     * @param entity entity whose components changed.
+     */
+    public void updateEntity(Entity entity) {
+        if(entity.getArchetype() != null) {
+            if(this.batching) {
+                this.pendingEntities.add(entity);
+            } else {
+                registerEntity(entity);
+            }
+        }
+    }
+
+    /**
+     * Defer the moves between archetypes until endBatch is called, so that an entity receiving several
+     * component changes in a row is only moved once.
+     */
+    public void beginBatch() {
+        this.batching = true;
+    }
+
+    /**
+     * Move every entity whose components changed since beginBatch to its new archetype.
+     */
+    public void endBatch() {
+        this.batching = false;
+        for(Entity entity : this.pendingEntities) {
+            if(entity.getArchetype() != null) {
+                registerEntity(entity);
+            }
+        }
+        this.pendingEntities.clear();
+    }
+
+    public void removeEntity(Entity entity) {
+        leaveArchetype(entity, true);
+    }
+
+    /**
+     * @param entity entity leaving its archetype.
+     * @param removed whether the entity is removed, rather than moved to another archetype: then all of its
+     *                components leave the indices, instead of the ones removed from the entity only.
+     */
+    private void leaveArchetype(Entity entity, boolean removed) {
+        Archetype archetype = entity.getArchetype();
+        if(archetype == null)
+            return;
+
+        notifyRemovedComponents(entity, archetype, removed);
+
+        Entity movedEntity = archetype.remove(entity.getArchetypeRow());
+        if(movedEntity != null) {
+            movedEntity.setArchetype(archetype, entity.getArchetypeRow());
+        }
+        entity.setArchetype(null, -1);
+    }
+
+    private synchronized void notifyRemovedComponents(Entity entity, Archetype archetype, boolean removed) {
+        int row = entity.getArchetypeRow();
+        for(int i = 0; i < this.indices.size(); i++) {
+            ComponentIndex index = this.indices.get(i);
+            for(int column : archetype.getColumnsFor(index.getType())) {
+                Component component = archetype.getComponent(column, row);
+                if(removed || !isAttached(entity, component))
+                    index.notifyRemoved(entity, component);
+            }
+        }
+    }
+
+    private static boolean isAttached(Entity entity, Component component) {
+        List<Component> components = entity.getComponents();
+        for(int i = 0; i < components.size(); i++) {
+            if(components.get(i) == component)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Return all the archetypes containing at least one component of the given type.
+     * The returned list is live and must not be modified.
+     * @param type interface or class of the components we are looking for.
+     * @return list of the matching archetypes.
+     */
+    public synchronized List<Archetype> getArchetypesMatching(Class<? extends Component> type) {
+        List<Archetype> result = this.matchingArchetypes.get(type);
+
+        if(result == null) {
+            result = new ArrayList<>();
+            for(Archetype archetype : this.archetypes.values()) {
+                if(archetype.matches(type)) {
+                    result.add(archetype);
+                }
+            }
+            this.matchingArchetypes.put(type, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Create a live index over the components of the given type. Systems register their recognized interface
+     * through this method and walk the index instead of rescanning every entity.
+     * @param type interface or class of the indexed components.
+     * @return the index, updated as entities and components come and go.
+     */
+    public synchronized ComponentIndex createIndex(Class<? extends Component> type) {
+        ComponentIndex index = new ComponentIndex(type, getArchetypesMatching(type));
+        this.indices.add(index);
+        return index;
+    }
+
+    private Archetype getArchetype(List<Class<? extends Component>> signature) {
+        Archetype archetype = this.archetypes.get(signature);
+
+        if(archetype == null) {
+            archetype = new Archetype(signature);
+            this.archetypes.put(archetype.getSignature(), archetype);
+
+            // Keep the cached queries up to date.
+            for(Map.Entry<Class<? extends Component>, List<Archetype>> query : this.matchingArchetypes.entrySet()) {
+                if(archetype.matches(query.getKey())) {
+                    query.getValue().add(archetype);
+                }
+            }
+        }
+
+        return archetype;
+    }
+
+    /**
+     * clears all archetypes from the manager
+     */
+    public void cleanUp() {
+        for(Archetype archetype : this.archetypes.values()) {
+            while(archetype.size() > 0) {
+                archetype.getEntity(archetype.size() - 1).setArchetype(null, -1);
+                archetype.remove(archetype.size() - 1);
+            }
+        }
+        this.archetypes.clear();
+        this.matchingArchetypes.clear();
+        this.indices.clear();
+        this.pendingEntities.clear();
+        this.batching = false;
+    }
+}
@@ -1,34 +1,30 @@
 package Engine.Managers;
 
+import Engine.Helper.HandleAllocator;
+import Engine.World;
 import Engine.System.Component.Component;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author Gregoire Boiron <gregoire.boiron@gmail.com>
  */
 public class ComponentManager {
 
-    private static ComponentManager instance;
+    private static final int INITIAL_CAPACITY = 256;
 
-    private Map<Integer, Component> componentMap = new HashMap<>();
-
-    public ComponentManager() {
-        instance = this;
-    }
+    /**
+     * Registered components, indexed by the index part of their ID.
+     */
+    private Component[] components = new Component[INITIAL_CAPACITY];
 
     /**
-     * Use a singleton pattern to represent the component Manager
-     * @return the instance of the class
+     * @return the manager of the current world.
      */
     public static ComponentManager getInstance() {
-        if(instance == null)
-            instance = new ComponentManager();
-
-        return instance;
+        return World.current().getComponentManager();
     }
 
 
@@ -38,28 +34,51 @@ public class ComponentManager {
      */
     public void registerComponent(Component... entityComponents) {
         for(Component component : entityComponents) {
-            this.componentMap.put(component.getID(), component);
+            // The component may come back after having been removed: it needs a live ID again.
+            component.renewID();
+
+            int index = HandleAllocator.indexOf(component.getID());
+            if(index >= this.components.length) {
+                this.components = Arrays.copyOf(this.components, Math.max(index + 1, this.components.length * 2));
+            }
+            this.components[index] = component;
         }
     }
 
-    public List<Component> getComponents() { return new LinkedList<>(this.componentMap.values()); }
+    public List<Component> getComponents() {
+        List<Component> result = new LinkedList<>();
+        for(Component component : this.components) {
+            if(component != null)
+                result.add(component);
+        }
+        return result;
+    }
 
     /**
      * Return a component based on the id given.
      * @param id id of the component.
-     * @return Component if found, or null if not.
+     * @return Component if found, or null if not or if the id is stale.
      */
     public Component getComponentFromID(int id) {
-        return this.componentMap.get(id);
+        int index = HandleAllocator.indexOf(id);
+        if(index >= this.components.length)
+            return null;
+
+        Component component = this.components[index];
+        return component != null && component.getID() == id ? component : null;
     }
 
     /**
-     * Remove a component from the manager
+     * Remove a component from the manager. Its ID is released and may be reused by another component.
      * @param entityComponents
      */
     public void removeComponent(Component... entityComponents) {
         for(Component component : entityComponents) {
-            this.componentMap.remove(component.getID());
+            int index = HandleAllocator.indexOf(component.getID());
+            if(index < this.components.length && this.components[index] == component) {
+                this.components[index] = null;
+                component.releaseID();
+            }
         }
     }
 
@@ -67,7 +86,7 @@ public class ComponentManager {
      * clears all components from the manager
      */
     public void Reset(){
-        this.componentMap.clear();
+        Arrays.fill(this.components, null);
     }
 
 }
@@ -1,43 +1,83 @@
 package Engine.Managers;
 
-import Engine.GameEngine;
+import Engine.Helper.HandleAllocator;
 import Engine.Main.Entity;
+import Engine.Main.Light.DirectionalLight;
+import Engine.Main.Light.PointLight;
+import Engine.Main.Light.SpotLight;
 import Engine.Main.Material;
 import Engine.Main.ScriptFile;
 import Engine.Main.Sound;
 import Engine.System.Component.Component;
+import Engine.World;
 
 import java.util.*;
 
 public class MetadataManager {
 
-    private static MetadataManager instance;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final ArchetypeManager archetypeManager;
+
+    private final ComponentManager componentManager;
+
+    /**
+     * Registered entities, indexed by the index part of their unique ID.
+     */
+    private Entity[] entity = new Entity[INITIAL_CAPACITY];
+
+    private int entitiesCount = 0;
+
+    /**
+     * Incremented every time the set of registered entities changes.
+     */
+    private int entitiesVersion = 0;
+
+    /**
+     * Read-only packed copy of the registered entities, rebuilt when the entities version changes.
+     */
+    private List<Entity> entitiesView = Collections.emptyList();
+
+    private int entitiesViewVersion = 0;
 
-    private Map<Integer, Entity> entity = new HashMap<>();
     private Map<Integer, Material> materials = new HashMap<>();
     private Map<Integer, Sound> sounds = new HashMap<>();
     private Map<Integer, ScriptFile> scripts = new HashMap<>();
 
-    public MetadataManager() {
-        instance = this;
+    // Lights are kept aside so the graphics system does not have to look for them every frame.
+    private List<Entity> lights = new ArrayList<>();
+    private List<Entity> lightsView = Collections.unmodifiableList(this.lights);
+
+    public MetadataManager(ArchetypeManager archetypeManager, ComponentManager componentManager) {
+        this.archetypeManager = archetypeManager;
+        this.componentManager = componentManager;
     }
 
     /**
-     * Use a singleton pattern to represent this Manager
-     * @return the instance of the class
+     * @return the manager of the current world.
      */
     public static MetadataManager getInstance() {
-        if(instance == null)
-            instance = new MetadataManager();
-
-        return instance;
+        return World.current().getMetadataManager();
     }
 
     public void registerEntity(Entity entity) {
-        this.entity.put(entity.getUniqueID(), entity);
+        // The entity may come back after having been removed: it needs a live ID again.
+        entity.renewUniqueID();
+
+        int index = HandleAllocator.indexOf(entity.getUniqueID());
+        if(index >= this.entity.length) {
+            this.entity = Arrays.copyOf(this.entity, Math.max(index + 1, this.entity.length * 2));
+        }
+        if(this.entity[index] == null)
+            this.entitiesCount++;
+        this.entity[index] = entity;
+        this.entitiesVersion++;
+        this.archetypeManager.registerEntity(entity);
+        if(isLight(entity) && !this.lights.contains(entity))
+            this.lights.add(entity);
         // // Register the transform AND all the components to be able to communicate with him.
-        GameEngine.componentManager.registerComponent(entity.getTransform());
-        GameEngine.componentManager.registerComponent(entity.getComponents().stream().toArray(Component[]::new));
+        this.componentManager.registerComponent(entity.getTransform());
+        this.componentManager.registerComponent(entity.getComponents().stream().toArray(Component[]::new));
     }
 
     public void registerMaterial(Material material) {
@@ -52,7 +92,52 @@ public class MetadataManager {
         this.scripts.put(scriptFile.getUniqueID(), scriptFile);
     }
 
-    public List<Entity> getEntities() { return new LinkedList<>(this.entity.values()); }
+    /**
+     * Return the registered entities. The list is read-only and shared: it is only rebuilt when entities are
+     * registered or removed, so it can be called every frame without copying. A list obtained before a change
+     * keeps its content, which makes it safe to remove entities while iterating.
+     * @return an array-backed read-only list of the registered entities.
+     */
+    public List<Entity> getEntities() {
+        if(this.entitiesViewVersion != this.entitiesVersion) {
+            Entity[] packed = new Entity[this.entitiesCount];
+            int count = 0;
+            for(Entity entity : this.entity) {
+                if(entity != null)
+                    packed[count++] = entity;
+            }
+            this.entitiesView = Collections.unmodifiableList(Arrays.asList(packed));
+            this.entitiesViewVersion = this.entitiesVersion;
+        }
+
+        return this.entitiesView;
+    }
+
+    /**
+     * @return a counter incremented every time the set of registered entities changes.
+     */
+    public int getEntitiesVersion() { return this.entitiesVersion; }
+
+    /**
+     * Return an entity based on the id given.
+     * @param id unique ID of the entity.
+     * @return the entity if found, or null if not or if the id is stale.
+     */
+    public Entity getEntity(int id) {
+        int index = HandleAllocator.indexOf(id);
+        if(index >= this.entity.length)
+            return null;
+
+        Entity entity = this.entity[index];
+        return entity != null && entity.getUniqueID() == id ? entity : null;
+    }
+
+    public int getEntitiesCount() { return this.entitiesCount; }
+
+    /**
+     * @return a read-only live view of the registered lights.
+     */
+    public List<Entity> getLights() { return this.lightsView; }
 
     public List<Material> getMaterials() { return new LinkedList<>(this.materials.values()); }
 
@@ -60,10 +145,24 @@ public class MetadataManager {
 
     public List<ScriptFile> getScriptFile() { return new LinkedList<>(this.scripts.values()); }
 
+    /**
+     * Remove an entity and its components from the engine. Their IDs are released: scripts still holding them
+     * will get null instead of another entity.
+     * @param entity entity to remove.
+     */
     public void removeEntity(Entity entity) {
-        this.entity.remove(entity.getUniqueID());
-        GameEngine.componentManager.removeComponent(entity.getTransform());
-        GameEngine.componentManager.removeComponent(entity.getComponents().stream().toArray(Component[]::new));
+        int index = HandleAllocator.indexOf(entity.getUniqueID());
+        if(index >= this.entity.length || this.entity[index] != entity)
+            return;
+
+        this.entity[index] = null;
+        this.entitiesCount--;
+        this.entitiesVersion++;
+        this.archetypeManager.removeEntity(entity);
+        this.lights.remove(entity);
+        this.componentManager.removeComponent(entity.getTransform());
+        this.componentManager.removeComponent(entity.getComponents().stream().toArray(Component[]::new));
+        entity.releaseUniqueID();
     }
 
     public void removeMaterial(Material material) {
@@ -78,11 +177,18 @@ public class MetadataManager {
         this.scripts.remove(scriptFile.getUniqueID());
     }
 
+    private static boolean isLight(Entity entity) {
+        return entity instanceof PointLight || entity instanceof DirectionalLight || entity instanceof SpotLight;
+    }
+
     /**
      * clears all element from the manager
      */
     public void cleanUp() {
-        this.entity.clear();
+        Arrays.fill(this.entity, null);
+        this.entitiesCount = 0;
+        this.entitiesVersion++;
+        this.lights.clear();
         this.materials.clear();
         this.scripts.clear();
         this.sounds.clear();
@@ -0,0 +1,119 @@
+package Engine;
+
+import Engine.Helper.Events.Events;
+import Engine.Helper.Events.SystemIterateEvent;
+import Engine.Helper.FramePacer;
+import Engine.Helper.Profiler;
+import Engine.Main.Material;
+import Engine.System.Graphics.GraphicsSystem;
+import Engine.System.Graphics.SceneSnapshot;
+import Engine.System.Graphics.SceneSnapshotBuffer;
+import org.lwjgl.opengl.GL;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.lwjgl.glfw.GLFW.glfwMakeContextCurrent;
+import static org.lwjgl.system.MemoryUtil.NULL;
+
+/**
+ * Thread owning the GL context. It draws the snapshots published by the game loop, so that the simulation
+ * of the next frame runs while the current one is rendered.
+ *
+ * The window itself stays with the game loop thread, which created it and polls its events: GLFW only allows
+ * that on the thread owning the window. This thread is only handed the GL context, and swaps and clears the buffers.
+ */
+public class RenderThread extends Thread {
+
+    private final Window window;
+
+    private final GraphicsSystem graphicsSystem;
+
+    private final List<Material> materials;
+
+    private final SceneSnapshotBuffer snapshotBuffer;
+
+    private final FramePacer framePacer;
+
+    private final World world;
+
+    private final CountDownLatch initialized = new CountDownLatch(1);
+
+    private volatile Exception initializationError;
+
+    public RenderThread(World world, Window window, GraphicsSystem graphicsSystem, List<Material> materials,
+                        SceneSnapshotBuffer snapshotBuffer, FramePacer framePacer) {
+        super("Render thread");
+        this.world = world;
+        this.window = window;
+        this.graphicsSystem = graphicsSystem;
+        this.materials = materials;
+        this.snapshotBuffer = snapshotBuffer;
+        this.framePacer = framePacer;
+    }
+
+    @Override
+    public void run() {
+        this.world.bind();
+
+        // Everything touching GL has to be created on this thread.
+        try {
+            glfwMakeContextCurrent(window.getWindowHandle());
+            GL.createCapabilities();
+            framePacer.applySwapInterval(window);
+            for (Material material : this.materials) {
+                material.initialize();
+            }
+            graphicsSystem.initialize();
+        } catch (Exception e) {
+            this.initializationError = e;
+            this.snapshotBuffer.close();
+        } finally {
+            this.initialized.countDown();
+        }
+
+        if(this.initializationError != null)
+            return;
+
+        Profiler profiler = this.world.getProfiler();
+        Profiler.Section swapSection = profiler.getSection("Window.swapAndClear");
+        Profiler.Section graphicsSection = profiler.getSection(graphicsSystem.getName());
+        try {
+            SceneSnapshot snapshot;
+            while ((snapshot = this.snapshotBuffer.acquire()) != null) {
+                long start = profiler.start();
+                window.swapAndClear();
+                profiler.stop(swapSection, start);
+                if(graphicsSystem.isActive()) {
+                    SystemIterateEvent event = Events.ENABLED ? new SystemIterateEvent() : null;
+                    if(event != null)
+                        event.begin();
+                    start = profiler.start();
+                    graphicsSystem.render(snapshot);
+                    profiler.stop(graphicsSection, start);
+                    if(event != null && event.shouldCommit()) {
+                        event.system = graphicsSystem.getName();
+                        event.commit();
+                    }
+                }
+                this.snapshotBuffer.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            graphicsSystem.cleanUp();
+            // Give the context back, so that the window can be destroyed by its own thread.
+            glfwMakeContextCurrent(NULL);
+        }
+    }
+
+    /**
+     * Wait for the context and the graphics system to be ready.
+     * @throws Exception the error raised during the initialization, if any.
+     */
+    public void awaitInitialization() throws Exception {
+        this.initialized.await();
+        if(this.initializationError != null)
+            throw this.initializationError;
+    }
+}
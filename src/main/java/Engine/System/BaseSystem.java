@@ -5,25 +5,88 @@ package Engine.System;
  */
 
 import Engine.Main.Entity;
+import Engine.System.Component.Archetype;
 import Engine.System.Component.Component;
+import Engine.World;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public abstract class BaseSystem implements GameSystem {
 
     private boolean isActive = true;
 
+    private int updatesPerSecond = 0;
+
+    private int phase = -1;
+
+    /**
+     * Live index of the components recognized by the system.
+     */
+    private ComponentIndex componentIndex;
+
+    private final ComponentIndex.Visitor applyVisitor = (entity, component) -> applyComponent(component);
+
+    /**
+     * Walks the components recognized by the system and applies them.
+     * The given entities are ignored: the system only walks the members of its index.
+     * @param entities entities registered in the engine.
+     */
     public void iterate(List<Entity> entities) {
-        entities.forEach(entity -> getLocalSystemComponentsFor(entity).forEach(this::applyComponent));
+        getComponentIndex().forEach(this.applyVisitor);
+    }
+
+    public void iterate(List<Entity> entities, float timeStep) {
+        iterate(entities);
+    }
+
+    /**
+     * @return the live index of the components recognized by the system, created on first use.
+     */
+    protected ComponentIndex getComponentIndex() {
+        if(this.componentIndex == null) {
+            this.componentIndex = World.current().getArchetypeManager().createIndex(getRecognizedInterface());
+            this.componentIndex.addRemovalListener(this::onComponentRemoved);
+        }
+
+        return this.componentIndex;
+    }
+
+    /**
+     * Called when a component recognized by the system leaves its index: it was removed from its entity, or its
+     * entity was removed. Systems keeping state about their components forget it here.
+     * @param entity entity the component belonged to.
+     * @param component component removed.
+     */
+    protected void onComponentRemoved(Entity entity, Component component) {
+
     }
 
     protected List<Component> getLocalSystemComponentsFor(Entity entity) {
-        List<Component> componentsToApply = new ArrayList<>();
+        return getLocalSystemComponentsFor(entity, new ArrayList<>());
+    }
 
-        for(Component component : entity.getComponents())
-            if(getRecognizedInterface().isAssignableFrom(component.getClass()))
-                componentsToApply.add(component);
+    /**
+     * Gather the components of an entity recognized by the system into a given list, e.g. a reused one.
+     * @param entity entity to look into.
+     * @param componentsToApply list receiving the components. It is cleared first.
+     * @return componentsToApply.
+     */
+    protected List<Component> getLocalSystemComponentsFor(Entity entity, List<Component> componentsToApply) {
+        componentsToApply.clear();
+        Archetype archetype = entity.getArchetype();
+
+        if(archetype != null) {
+            // Registered entity: the archetype already knows which columns match.
+            for(int column : archetype.getColumnsFor(getRecognizedInterface()))
+                componentsToApply.add(archetype.getComponent(column, entity.getArchetypeRow()));
+        } else {
+            List<Component> components = entity.getComponents();
+            for(int i = 0; i < components.size(); i++)
+                if(getRecognizedInterface().isAssignableFrom(components.get(i).getClass()))
+                    componentsToApply.add(components.get(i));
+        }
 
         return componentsToApply;
     }
@@ -34,6 +97,17 @@ public abstract class BaseSystem implements GameSystem {
 
     public abstract Class<? extends Component> getRecognizedInterface();
 
+    /**
+     * By default a system reads and writes the components it recognizes only.
+     */
+    public List<Class<? extends Component>> getReadComponents() {
+        return Collections.singletonList(getRecognizedInterface());
+    }
+
+    public List<Class<? extends Component>> getWrittenComponents() {
+        return Collections.singletonList(getRecognizedInterface());
+    }
+
     public void setActiveState(boolean state) {
         this.isActive = state;
     }
@@ -42,4 +116,20 @@ public abstract class BaseSystem implements GameSystem {
         return this.isActive;
     }
 
+    public int getUpdatesPerSecond() {
+        return this.updatesPerSecond;
+    }
+
+    public void setUpdatesPerSecond(int updatesPerSecond) {
+        this.updatesPerSecond = Math.max(0, updatesPerSecond);
+    }
+
+    public int getPhase() {
+        return this.phase;
+    }
+
+    public void setPhase(int phase) {
+        this.phase = phase;
+    }
+
 }
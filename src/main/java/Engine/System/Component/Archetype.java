@@ -0,0 +1,158 @@
+package Engine.System.Component;
+
+import Engine.Main.Entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gathers all the entities sharing the exact same list of component types.
+ * Components are stored column by column: the column i holds the i-th component of every entity of the archetype,
+ * so that a system only walks the columns matching the interface it recognizes.
+ */
+public class Archetype {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final int[] NO_COLUMN = new int[0];
+
+    /**
+     * Ordered list of the component types of every entity stored in this archetype.
+     */
+    private final List<Class<? extends Component>> signature;
+
+    private Entity[] entities;
+
+    private Component[][] columns;
+
+    private int size;
+
+    /**
+     * Columns matching a given interface, resolved once per interface. Systems may resolve them concurrently.
+     */
+    private final Map<Class<? extends Component>, int[]> matchingColumns = new ConcurrentHashMap<>();
+
+    public Archetype(List<Class<? extends Component>> signature) {
+        this.signature = Collections.unmodifiableList(new ArrayList<>(signature));
+        this.entities = new Entity[INITIAL_CAPACITY];
+        this.columns = new Component[signature.size()][INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Builds the signature of an entity from the types of its components.
+     * @param entity entity we want the signature of.
+     * @return the ordered list of its component types.
+     */
+    public static List<Class<? extends Component>> signatureOf(Entity entity) {
+        List<Class<? extends Component>> signature = new ArrayList<>(entity.getComponents().size());
+        for(Component component : entity.getComponents()) {
+            signature.add(component.getClass());
+        }
+        return signature;
+    }
+
+    /**
+     * Store an entity and its components at the end of the archetype.
+     * @param entity entity to store. Its components must match the signature.
+     * @return the row where the entity has been stored.
+     */
+    public int add(Entity entity) {
+        if(this.size == this.entities.length) {
+            grow();
+        }
+
+        List<Component> components = entity.getComponents();
+        int row = this.size;
+        this.entities[row] = entity;
+        for(int column = 0; column < this.columns.length; column++) {
+            this.columns[column][row] = components.get(column);
+        }
+        this.size++;
+
+        return row;
+    }
+
+    /**
+     * Remove the entity stored at the given row. The last entity of the archetype is moved into the freed row
+     * to keep the storage contiguous.
+     * @param row row of the entity to remove.
+     * @return the entity that has been moved into the row, or null if the removed entity was the last one.
+     */
+    public Entity remove(int row) {
+        int last = this.size - 1;
+        Entity movedEntity = null;
+
+        if(row != last) {
+            movedEntity = this.entities[last];
+            this.entities[row] = movedEntity;
+            for(Component[] column : this.columns) {
+                column[row] = column[last];
+            }
+        }
+
+        // Release the references of the last row.
+        this.entities[last] = null;
+        for(Component[] column : this.columns) {
+            column[last] = null;
+        }
+        this.size--;
+
+        return movedEntity;
+    }
+
+    /**
+     * Return the columns holding components assignable to the given type.
+     * @param type interface or class we are looking for.
+     * @return the indices of the matching columns, empty if the archetype does not match.
+     */
+    public int[] getColumnsFor(Class<? extends Component> type) {
+        int[] result = this.matchingColumns.get(type);
+
+        if(result == null) {
+            int[] candidates = new int[this.signature.size()];
+            int count = 0;
+            for(int column = 0; column < this.signature.size(); column++) {
+                if(type.isAssignableFrom(this.signature.get(column))) {
+                    candidates[count++] = column;
+                }
+            }
+            result = count == 0 ? NO_COLUMN : Arrays.copyOf(candidates, count);
+            this.matchingColumns.put(type, result);
+        }
+
+        return result;
+    }
+
+    public boolean matches(Class<? extends Component> type) {
+        return getColumnsFor(type).length > 0;
+    }
+
+    public List<Class<? extends Component>> getSignature() {
+        return this.signature;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public Entity getEntity(int row) {
+        return this.entities[row];
+    }
+
+    public Component getComponent(int column, int row) {
+        return this.columns[column][row];
+    }
+
+    private void grow() {
+        int capacity = this.entities.length * 2;
+        this.entities = Arrays.copyOf(this.entities, capacity);
+        for(int column = 0; column < this.columns.length; column++) {
+            this.columns[column] = Arrays.copyOf(this.columns[column], capacity);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package Engine.System.Component;
 
+import Engine.Helper.HandleAllocator;
 import Engine.Main.Entity;
 import Engine.System.Component.Messaging.Message;
+import Engine.World;
 
 /**
  * @author Matthieu Le Boucher <matt.leboucher@gmail.com>
@@ -16,9 +18,9 @@ public abstract class BaseComponent implements Component {
     private Entity entity;
 
     /*
-     * Keep track of all the ID created
+     * Hands out the IDs of the components of a world as generational handles.
      */
-    private static int currentIDNumber = 0;
+    private final HandleAllocator handles;
 
     /*
      * This ID will allow component to talk to each other
@@ -30,9 +32,8 @@ public abstract class BaseComponent implements Component {
     public BaseComponent(Entity entity) {
         this.entity = entity;
         this.active = true;
-        // Create a "ramdom" ID for the component.
-        this.ID = BaseComponent.currentIDNumber;
-        BaseComponent.currentIDNumber++;
+        this.handles = World.current().getComponentHandles();
+        this.ID = this.handles.allocate();
     }
 
     public Entity getEntity() {
@@ -55,6 +56,15 @@ public abstract class BaseComponent implements Component {
         return this.ID;
     }
 
+    public void releaseID() {
+        this.handles.release(this.ID);
+    }
+
+    public void renewID() {
+        if(!this.handles.isAlive(this.ID))
+            this.ID = this.handles.allocate();
+    }
+
     @Override
     public abstract void apply();
 
@@ -20,6 +20,16 @@ public interface Component {
 
     int getID();
 
+    /**
+     * Give the ID back once the component has been removed from the engine. Messages sent to it are dropped.
+     */
+    void releaseID();
+
+    /**
+     * Hand out a new ID if the current one has been released.
+     */
+    void renewID();
+
     void apply();
 
     void initialize();
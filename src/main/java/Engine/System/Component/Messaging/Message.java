@@ -1,5 +1,8 @@
 package Engine.System.Component.Messaging;
 
+import javax.vecmath.Tuple3f;
+import org.joml.Vector3f;
+
 /**
  * @author Florian VIDAL <florianvidals@gmail.com>
  * @author Grégoire Boiron <gregoire.boiron@gmail.com>
@@ -7,44 +10,222 @@ package Engine.System.Component.Messaging;
 
 public class Message<T> {
 
-    private Integer IDsender;
-    private Integer IDreceiver;
-    private String instruction;
+    /**
+     * Sender or receiver of a message that does not come from, or go to, a component.
+     */
+    public static final int NO_ID = -1;
+
+    /**
+     * Correlation ID of the messages which are neither a request nor its answer.
+     */
+    public static final int NO_CORRELATION = 0;
+
+    private int IDsender = NO_ID;
+    private int IDreceiver = NO_ID;
+    private int opcode;
     private T data;
 
+    // Pairs a return message with its request, see MessageQueue.request.
+    private int correlationID = NO_CORRELATION;
+
+    // Primitive payload, so that common values are sent without boxing nor copying objects.
+    private int intValue;
+    private float x;
+    private float y;
+    private float z;
+
+    // Whether the message was obtained from a MessageQueue, which reuses it once delivered.
+    boolean pooled = false;
+
     /**
      * Message transmitted between two components.
      *
      * The type T of data is intrinsically tied to the instruction. Both the sender and the receiver should
      * be aware of the type of data according to the instruction.
      *
-     * Message is read-only.
+     * Numbers, booleans and vectors given as data are also copied into the primitive payload, which receivers
+     * read with getInt, getFloat, getBoolean and getX, getY, getZ.
      *
-     * @param sender      Component from where the message is coming
-     * @param receiver    Component which the message is meant for
+     * Message is read-only once sent. Messages obtained from a MessageQueue are recycled once delivered:
+     * receivers must copy what they keep.
+     *
+     * @param sender      Component from where the message is coming, or NO_ID
+     * @param receiver    Component which the message is meant for, or NO_ID
      * @param instruction Which instruction should be executed by the receiver
      * @param data        The data needed (or not) by the receiver in order to execute the instruction
      */
-    public Message(Integer sender, Integer receiver, String instruction, T data) {
+    public Message(int sender, int receiver, String instruction, T data) {
+        this(sender, receiver, Opcodes.of(instruction), data);
+    }
+
+    /**
+     * @param sender   Component from where the message is coming, or NO_ID
+     * @param receiver Component which the message is meant for, or NO_ID
+     * @param opcode   Which instruction should be executed by the receiver, see Opcodes
+     * @param data     The data needed (or not) by the receiver in order to execute the instruction
+     */
+    public Message(int sender, int receiver, int opcode, T data) {
+        set(sender, receiver, opcode);
+        setData(data);
+    }
+
+    /**
+     * Empty message, filled by a MessageQueue before it is sent.
+     */
+    Message() {
+
+    }
+
+    Message<T> set(int sender, int receiver, int opcode) {
         this.IDsender = sender;
         this.IDreceiver = receiver;
-        this.instruction = instruction;
-        this.data = data;
+        this.opcode = opcode;
+        return this;
+    }
+
+    /**
+     * Forget the content of the message before it is reused.
+     */
+    void clear() {
+        this.IDsender = NO_ID;
+        this.IDreceiver = NO_ID;
+        this.opcode = 0;
+        this.correlationID = NO_CORRELATION;
+        this.data = null;
+        this.intValue = 0;
+        this.x = 0;
+        this.y = 0;
+        this.z = 0;
+    }
+
+    /**
+     * Add the primitive payload of a later message to this one, see Opcodes.Coalescing.ADDITIVE.
+     * @param other message merged into this one.
+     */
+    void accumulate(Message<?> other) {
+        this.data = null;
+        this.intValue += other.intValue;
+        this.x += other.x;
+        this.y += other.y;
+        this.z += other.z;
     }
 
-    public Integer getSender() {
+    public int getSender() {
         return IDsender;
     }
 
-    public Integer getReceiver() {
+    public int getReceiver() {
         return IDreceiver;
     }
 
+    public int getOpcode() {
+        return opcode;
+    }
+
+    /**
+     * @return the ID shared by a request and its answer, or NO_CORRELATION.
+     */
+    public int getCorrelationID() {
+        return correlationID;
+    }
+
+    Message<T> setCorrelationID(int correlationID) {
+        this.correlationID = correlationID;
+        return this;
+    }
+
     public String getInstruction() {
-        return instruction;
+        return Opcodes.nameOf(opcode);
     }
 
     public T getData() {
         return data;
     }
-}
\ No newline at end of file
+
+    public int getInt() {
+        return intValue;
+    }
+
+    public float getFloat() {
+        return x;
+    }
+
+    public boolean getBoolean() {
+        return intValue != 0;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public float getZ() {
+        return z;
+    }
+
+    /**
+     * @param dest vector receiving the vector payload.
+     * @return dest.
+     */
+    public Vector3f getVector(Vector3f dest) {
+        return dest.set(x, y, z);
+    }
+
+    /**
+     * Set the data, and the primitive payload when the data is a number, a boolean or a vector.
+     * @param data the data of the message.
+     * @return this message.
+     */
+    public Message<T> setData(T data) {
+        this.data = data;
+
+        if(data instanceof Number) {
+            this.intValue = ((Number) data).intValue();
+            this.x = ((Number) data).floatValue();
+        } else if(data instanceof Boolean) {
+            this.intValue = (Boolean) data ? 1 : 0;
+        } else if(data instanceof Vector3f) {
+            setVector(((Vector3f) data).x, ((Vector3f) data).y, ((Vector3f) data).z);
+        } else if(data instanceof Tuple3f) {
+            setVector(((Tuple3f) data).x, ((Tuple3f) data).y, ((Tuple3f) data).z);
+        }
+        return this;
+    }
+
+    /**
+     * Set a number, read back with getInt or getFloat, like a Number given to setData.
+     * @param value the number.
+     * @return this message.
+     */
+    public Message<T> setInt(int value) {
+        this.intValue = value;
+        this.x = value;
+        return this;
+    }
+
+    /**
+     * Set a number, read back with getFloat or, truncated, with getInt, like a Number given to setData.
+     * @param value the number.
+     * @return this message.
+     */
+    public Message<T> setFloat(float value) {
+        this.intValue = (int) value;
+        this.x = value;
+        return this;
+    }
+
+    public Message<T> setBoolean(boolean value) {
+        this.intValue = value ? 1 : 0;
+        return this;
+    }
+
+    public Message<T> setVector(float x, float y, float z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+}
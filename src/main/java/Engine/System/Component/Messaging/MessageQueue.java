@@ -1,11 +1,14 @@
 package Engine.System.Component.Messaging;
 
-import Engine.GameEngine;
-import Engine.Main.Entity;
+import Engine.Helper.Events.Events;
+import Engine.Helper.Events.MessageDispatchEvent;
+import Engine.Managers.ComponentManager;
 import Engine.System.Component.Component;
 
-import java.util.ArrayDeque;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Florian VIDAL <florianvidals@gmail.com>
@@ -14,45 +17,408 @@ import java.util.Iterator;
 
 public class MessageQueue {
 
-    private ArrayDeque<Message> queue;
+    /**
+     * Default maximum number of messages waiting for dispatch.
+     */
+    public static final int DEFAULT_CAPACITY = 16384;
+
+    /**
+     * Maximum number of delivered messages kept for reuse.
+     */
+    private static final int POOL_CAPACITY = 4096;
+
+    private final MessageRing queue;
+
+    // Delivered messages, ready to be obtained again.
+    private final MessageRing pool = new MessageRing(POOL_CAPACITY);
+
+    // Messages refused because the queue was full.
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final AtomicInteger correlationIDs = new AtomicInteger();
+
+    private final ComponentManager componentManager;
+
+    private boolean coalescing = false;
+
+    // Coalescing of the instructions, by opcode. Replaced as a whole on change, so that it is read without lock.
+    private volatile Opcodes.Coalescing[] policies = new Opcodes.Coalescing[0];
+
+    // Messages delivered, and merged into another one, by dispatch so far.
+    private long deliveredMessages = 0;
+
+    private long coalescedMessages = 0;
+
+    // Messages taken from the queue, being delivered.
+    private Message<?>[] batch = new Message<?>[256];
+
+    // Number of messages in the batch, and of messages merged into them.
+    private int batchSize = 0;
+
+    private int coalescedInBatch = 0;
+
+    // Request being delivered, and whether its receiver answered it.
+    private Message<?> delivering;
+
+    private boolean answered;
+
+    // Failure answers which did not fit in the full queue. Requesters learn they get no answer all the same.
+    private final ConcurrentLinkedQueue<Message<?>> failures = new ConcurrentLinkedQueue<>();
 
     /**
      * The message queue will gather all the messages sent by the components and dispatch them to the correct receiver
+     * @param componentManager components of the world the messages are delivered in.
      */
-    public MessageQueue() {
-        this.queue = new ArrayDeque<>();
+    public MessageQueue(ComponentManager componentManager) {
+        this(componentManager, DEFAULT_CAPACITY);
     }
 
     /**
-     * Add a message to the end of the queue
+     * Any thread may send messages: systems running in parallel, the editor or asset loaders. Messages are only
+     * delivered by dispatch, on the thread updating the world.
+     * @param componentManager components of the world the messages are delivered in.
+     * @param capacity maximum number of messages waiting for dispatch, rounded up to a power of two.
+     */
+    public MessageQueue(ComponentManager componentManager, int capacity) {
+        this.queue = new MessageRing(capacity);
+        this.componentManager = componentManager;
+
+        setCoalescing(Opcodes.SET_POSITION, Opcodes.Coalescing.LAST_WRITE_WINS);
+        setCoalescing(Opcodes.SET_ROTATION, Opcodes.Coalescing.LAST_WRITE_WINS);
+        setCoalescing(Opcodes.SET_SCALE, Opcodes.Coalescing.LAST_WRITE_WINS);
+        setCoalescing(Opcodes.SET_VELOCITY, Opcodes.Coalescing.LAST_WRITE_WINS);
+        setCoalescing(Opcodes.SET_VOLUME, Opcodes.Coalescing.LAST_WRITE_WINS);
+        setCoalescing(Opcodes.SET_PITCH, Opcodes.Coalescing.LAST_WRITE_WINS);
+        setCoalescing(Opcodes.ROTATE, Opcodes.Coalescing.ADDITIVE);
+        setCoalescing(Opcodes.TRANSLATE, Opcodes.Coalescing.ADDITIVE);
+    }
+
+    /**
+     * Add a message to the end of the queue, from any thread.
      * @param message message to be delivered to another component
+     * @return false if the queue is full: the message is dropped, and the sender should back off until the next
+     * dispatch.
+     */
+    public boolean add(Message<?> message){
+        if(this.queue.offer(message))
+            return true;
+
+        this.rejected.incrementAndGet();
+        recycle(message);
+        return false;
+    }
+
+    /**
+     * Get an empty message, reused from the delivered ones when possible, to be filled and given to add.
+     * The message is recycled once delivered, while messages built by the caller are left untouched.
+     * @param sender      Component from where the message is coming, or Message.NO_ID
+     * @param receiver    Component which the message is meant for
+     * @param opcode      Which instruction should be executed by the receiver, see Opcodes
+     * @param <T>         type of the data of the message
+     * @return the message.
+     */
+    public <T> Message<T> obtain(int sender, int receiver, int opcode) {
+        Message<T> message = reuse(this.pool.poll());
+        if(message == null) {
+            message = new Message<>();
+            message.pooled = true;
+        }
+        return message.set(sender, receiver, opcode);
+    }
+
+    /**
+     * @param message message taken from the pool, or null.
+     * @return the same message, for any type of data: pooled messages are cleared, so they hold no data yet.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Message<T> reuse(Message<?> message) {
+        return (Message<T>) message;
+    }
+
+    /**
+     * Send a message without payload.
+     * @param sender      Component from where the message is coming, or Message.NO_ID
+     * @param receiver    Component which the message is meant for
+     * @param opcode      Which instruction should be executed by the receiver, see Opcodes
+     * @return false if the queue is full, see add.
+     */
+    public boolean send(int sender, int receiver, int opcode) {
+        return add(obtain(sender, receiver, opcode));
+    }
+
+    public boolean send(int sender, int receiver, int opcode, int value) {
+        return add(obtain(sender, receiver, opcode).setInt(value));
+    }
+
+    public boolean send(int sender, int receiver, int opcode, float value) {
+        return add(obtain(sender, receiver, opcode).setFloat(value));
+    }
+
+    public boolean send(int sender, int receiver, int opcode, float x, float y, float z) {
+        return add(obtain(sender, receiver, opcode).setVector(x, y, z));
+    }
+
+    public <T> boolean send(int sender, int receiver, int opcode, T data) {
+        return add(this.<T>obtain(sender, receiver, opcode).setData(data));
+    }
+
+    /**
+     * Send a message expecting an answer, which the receiver gives with reply.
+     * @param sender        Component from where the message is coming, to which the answer is sent
+     * @param receiver      Component which the message is meant for
+     * @param opcode        Which instruction should be executed by the receiver, see Opcodes
+     * @param data          The data needed (or not) by the receiver in order to execute the instruction
+     * @param correlationID ID given by nextCorrelationID, carried by the request and its answer
+     * @return false if the queue is full, see add.
+     */
+    public <T> boolean request(int sender, int receiver, int opcode, T data, int correlationID) {
+        return add(this.<T>obtain(sender, receiver, opcode).setData(data).setCorrelationID(correlationID));
+    }
+
+    /**
+     * Answer a message with a return message, carrying its correlation ID back to its sender. Receivers answer from
+     * onMessage: requests left unanswered once delivered are failed, see dispatch.
+     * @param request message being answered.
+     * @param data    The returned data.
+     * @return false if the queue is full: the sender is then told that no answer is coming.
+     */
+    public <T> boolean reply(Message<?> request, T data) {
+        if(request == this.delivering)
+            this.answered = true;
+
+        if(add(this.<T>obtain(request.getReceiver(), request.getSender(), Opcodes.RETURN)
+                .setData(data).setCorrelationID(request.getCorrelationID())))
+            return true;
+
+        this.failures.add(failure(request));
+        return false;
+    }
+
+    /**
+     * @param request request which will get no answer.
+     * @return the message telling its sender, see Opcodes.UNANSWERED.
      */
-    public void add(Message message){
-        this.queue.addLast(message);
+    private Message<?> failure(Message<?> request) {
+        return obtain(request.getReceiver(), request.getSender(), Opcodes.UNANSWERED).setInt(request.getOpcode())
+                .setCorrelationID(request.getCorrelationID());
+    }
+
+    private static boolean isRequest(Message<?> message) {
+        return message.getCorrelationID() != Message.NO_CORRELATION && message.getOpcode() != Opcodes.RETURN
+                && message.getOpcode() != Opcodes.UNANSWERED;
+    }
+
+    /**
+     * @return a correlation ID for a request, distinct from the ones of the requests still waiting for an answer.
+     */
+    public int nextCorrelationID() {
+        int correlationID;
+        do {
+            correlationID = this.correlationIDs.incrementAndGet();
+        } while(correlationID == Message.NO_CORRELATION);
+        return correlationID;
+    }
+
+    private void recycle(Message<?> message) {
+        if(!message.pooled)
+            return;
+        message.clear();
+        // Past the capacity of the pool, the message is left to the garbage collector.
+        this.pool.offer(message);
+    }
+
+    /**
+     * @return the number of messages waiting for dispatch.
+     */
+    public int size() {
+        return this.queue.size();
+    }
+
+    public int getCapacity() {
+        return this.queue.capacity();
+    }
+
+    /**
+     * @return the number of messages refused so far because the queue was full.
+     */
+    public long getRejectedMessages() {
+        return this.rejected.get();
+    }
+
+    public boolean isCoalescing() {
+        return this.coalescing;
+    }
+
+    /**
+     * @param coalescing whether the messages of instructions opting in are merged before being dispatched, see
+     *                   Opcodes.Coalescing. Disabled by default.
+     */
+    public void setCoalescing(boolean coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    /**
+     * @param opcode an opcode.
+     * @return how the messages of the instruction are merged when coalescing is enabled.
+     */
+    public Opcodes.Coalescing getCoalescing(int opcode) {
+        Opcodes.Coalescing[] policies = this.policies;
+        return opcode >= 0 && opcode < policies.length && policies[opcode] != null ? policies[opcode]
+                : Opcodes.Coalescing.NONE;
+    }
+
+    /**
+     * Opt an instruction in or out of coalescing. Instructions of the engine components which only set a value,
+     * or add to it, are merged by default.
+     * @param opcode an opcode.
+     * @param policy how the messages of the instruction are merged.
+     */
+    public synchronized void setCoalescing(int opcode, Opcodes.Coalescing policy) {
+        Opcodes.Coalescing[] policies = Arrays.copyOf(this.policies, Math.max(this.policies.length, opcode + 1));
+        policies[opcode] = policy;
+        this.policies = policies;
+    }
+
+    /**
+     * @return the number of messages delivered by dispatch so far.
+     */
+    public long getDeliveredMessages() {
+        return this.deliveredMessages;
+    }
+
+    /**
+     * @return the number of messages merged into another one by dispatch so far, see setCoalescing.
+     */
+    public long getCoalescedMessages() {
+        return this.coalescedMessages;
     }
 
     /**
      * Dispatch all the messages in the queue at that time. The queue follows a FIFO behaviour.
+     * Messages sent while dispatching, such as return values, are delivered in the same pass, up to the capacity of
+     * the queue so that senders on other threads cannot hold the dispatch forever. Only one thread may dispatch at
+     * a time.
+     *
+     * Every request gets an answer: a request to a component which is gone is answered without data, and a request
+     * its receiver did not answer while handling it, e.g. an unknown instruction, gets an UNANSWERED message.
      */
     public void dispatch(){
-        /*
-        System.out.println(this.queue.toArray().length);
-        // debug
-        Iterator<Message> i = this.queue.iterator();
-        while (i.hasNext()) {
-            System.out.println(i.next().getInstruction());
-        }*/
-        // fin debug
-        while (!this.queue.isEmpty()){
-            // Remove the element from the queue
-            Message message = (Message)this.queue.poll();
-            int receiverID = message.getReceiver();
-            // Find the component that have this ID
-            Component receiver = GameEngine.componentManager.getComponentFromID(receiverID);
-            if (receiver != null){
-                receiver.onMessage(message);
+        MessageDispatchEvent event = Events.ENABLED ? new MessageDispatchEvent() : null;
+        if(event != null)
+            event.begin();
+        int messages = 0;
+        int delivered = 0;
+        int coalesced = 0;
+
+        int capacity = this.queue.capacity();
+        int taken;
+        // Messages sent while a batch is delivered make the next batch.
+        while (messages < capacity && (taken = drain(capacity - messages)) > 0){
+            messages += taken;
+            coalesced += this.coalescedInBatch;
+
+            for (int i = 0; i < this.batchSize; i++) {
+                Message<?> message = this.batch[i];
+                this.batch[i] = null;
+
+                int receiverID = message.getReceiver();
+                // Find the component that have this ID
+                Component receiver = receiverID == Message.NO_ID ? null
+                        : this.componentManager.getComponentFromID(receiverID);
+                if (receiver != null){
+                    this.delivering = message;
+                    this.answered = false;
+                    receiver.onMessage(message);
+                    this.delivering = null;
+                    delivered++;
+                    if (!this.answered && isRequest(message) && !add(failure(message)))
+                        this.failures.add(failure(message));
+                } else if (isRequest(message)) {
+                    // Nobody is left to answer the request: its sender gets an empty answer rather than none.
+                    reply(message, null);
+                }
+                // Receivers copy what they keep: the message can be reused if it was obtained from the queue.
+                recycle(message);
             }
-            message = null;
         }
+
+        // Failures which found the queue full are delivered last, past the capacity if need be.
+        Message<?> failure;
+        while ((failure = this.failures.poll()) != null) {
+            Component receiver = failure.getReceiver() == Message.NO_ID ? null
+                    : this.componentManager.getComponentFromID(failure.getReceiver());
+            if (receiver != null)
+                receiver.onMessage(failure);
+            recycle(failure);
+        }
+
+        this.deliveredMessages += delivered;
+        this.coalescedMessages += coalesced;
+
+        if(messages > 0 && event != null && event.shouldCommit()) {
+            event.messages = messages;
+            event.delivered = delivered;
+            event.coalesced = coalesced;
+            event.rejected = this.rejected.get();
+            event.commit();
+        }
+    }
+
+    /**
+     * Move messages from the queue to the batch, merging the ones which opt in to coalescing on the way.
+     * A message is only merged into the message right before it, when both go to the same receiver with the same
+     * opcode: no message to another receiver may come in between, so every message keeps its place in the order of
+     * the queue. Requests and answers are never merged.
+     * @param limit maximum number of messages to take from the queue.
+     * @return the number of messages taken, merged ones included.
+     */
+    private int drain(int limit) {
+        int taken = 0;
+        int size = 0;
+        this.coalescedInBatch = 0;
+
+        Message<?> message;
+        while (taken < limit && (message = this.queue.poll()) != null) {
+            taken++;
+            if (this.coalescing && size > 0 && merge(message, size - 1))
+                continue;
+
+            if (size == this.batch.length)
+                this.batch = Arrays.copyOf(this.batch, size * 2);
+            this.batch[size++] = message;
+        }
+        this.batchSize = size;
+        return taken;
+    }
+
+    /**
+     * @param message message taken from the queue.
+     * @param last position of the last message of the batch.
+     * @return true if the message was merged with the last message of the batch, the message left over being
+     * recycled.
+     */
+    private boolean merge(Message<?> message, int last) {
+        Message<?> previous = this.batch[last];
+        if (message.getReceiver() == Message.NO_ID || previous.getReceiver() != message.getReceiver()
+                || previous.getOpcode() != message.getOpcode()
+                || previous.getCorrelationID() != Message.NO_CORRELATION
+                || message.getCorrelationID() != Message.NO_CORRELATION)
+            return false;
+
+        Opcodes.Coalescing policy = getCoalescing(message.getOpcode());
+        if (policy == Opcodes.Coalescing.LAST_WRITE_WINS) {
+            // The message takes the place of the previous one.
+            this.batch[last] = message;
+            recycle(previous);
+            this.coalescedInBatch++;
+            return true;
+        } else if (policy == Opcodes.Coalescing.ADDITIVE && previous.pooled) {
+            // Messages built by the sender are not modified: they may be sent again.
+            previous.accumulate(message);
+            recycle(message);
+            this.coalescedInBatch++;
+            return true;
+        }
+        return false;
     }
 }
@@ -0,0 +1,100 @@
+package Engine.System.Component.Messaging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring of messages, for any number of producer and consumer threads.
+ *
+ * Each slot holds a sequence number telling whose turn it is: a producer claims a slot whose sequence equals its
+ * position with a single compare-and-set, writes the message, then publishes it by moving the sequence on.
+ * A consumer does the same one lap behind. Nobody waits on a lock: a full ring simply refuses the message.
+ */
+class MessageRing {
+
+    private final int mask;
+
+    private final AtomicReferenceArray<Message<?>> messages;
+
+    private final AtomicLongArray sequences;
+
+    // Next position to write.
+    private final AtomicLong tail = new AtomicLong();
+
+    // Next position to read.
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity maximum number of messages in the ring, rounded up to a power of two.
+     */
+    MessageRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.messages = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for(int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @param message message to add.
+     * @return false if the ring is full.
+     */
+    boolean offer(Message<?> message) {
+        long position = this.tail.get();
+        while(true) {
+            int index = (int) position & this.mask;
+            long lag = this.sequences.get(index) - position;
+            if(lag == 0) {
+                if(this.tail.compareAndSet(position, position + 1)) {
+                    this.messages.lazySet(index, message);
+                    // Publishes the message to the consumers.
+                    this.sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if(lag < 0) {
+                // The slot still holds the message of the previous lap.
+                return false;
+            }
+            position = this.tail.get();
+        }
+    }
+
+    /**
+     * @return the oldest message, or null if the ring is empty.
+     */
+    Message<?> poll() {
+        long position = this.head.get();
+        while(true) {
+            int index = (int) position & this.mask;
+            long lag = this.sequences.get(index) - (position + 1);
+            if(lag == 0) {
+                if(this.head.compareAndSet(position, position + 1)) {
+                    Message<?> message = this.messages.get(index);
+                    this.messages.lazySet(index, null);
+                    // Hands the slot over to the producers of the next lap.
+                    this.sequences.lazySet(index, position + this.mask + 1);
+                    return message;
+                }
+            } else if(lag < 0) {
+                // Nothing was published there yet.
+                return null;
+            }
+            position = this.head.get();
+        }
+    }
+
+    /**
+     * @return the number of messages in the ring, which may already have changed.
+     */
+    int size() {
+        long size = this.tail.get() - this.head.get();
+        return (int) Math.max(0, Math.min(size, this.mask + 1));
+    }
+
+    int capacity() {
+        return this.mask + 1;
+    }
+}
@@ -0,0 +1,135 @@
+package Engine.System.Component.Messaging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Integer codes of the message instructions. The instructions of the engine components are compile-time
+ * constants, so that receivers dispatch with a switch on the opcode, compiled into a jump table, rather than
+ * by hashing and comparing strings. Any other instruction is given a code the first time its name is seen.
+ *
+ * Instructions may also opt in to coalescing on a MessageQueue, see Coalescing: when enabled, the queue merges the
+ * messages of such an instruction sent in a row to the same receiver before dispatching them.
+ */
+public final class Opcodes {
+
+    /**
+     * How successive messages of an instruction to the same receiver are merged, set per queue with
+     * MessageQueue.setCoalescing.
+     *
+     * Merging changes what receivers observe, which is why MessageQueue.setCoalescing is off by default. A receiver
+     * no longer sees the intermediate values. Replacing a setter by a later one would also move the later value ahead
+     * of the messages sent to other components in between: a reInitialize of a rigid body sent between two
+     * setPosition of its transform would read the second position. The queue therefore only merges messages which
+     * directly follow each other.
+     */
+    public enum Coalescing {
+        /**
+         * Every message is delivered.
+         */
+        NONE,
+        /**
+         * Only the last message is delivered, such as for setters.
+         */
+        LAST_WRITE_WINS,
+        /**
+         * One message is delivered with the sum of the primitive payloads, such as for rotations. The receiver must
+         * read the payload with getInt, getFloat or getX, getY, getZ: the data of merged messages is dropped.
+         */
+        ADDITIVE
+    }
+
+    public static final int RETURN = 0;
+    public static final int MOUSE_EVENT = 1;
+    public static final int KEYBOARD_EVENT = 2;
+
+    // Transform
+    public static final int SET_POSITION = 3;
+    public static final int SET_ROTATION = 4;
+    public static final int SET_SCALE = 5;
+    public static final int ROTATE = 6;
+    public static final int SET_PARENT = 7;
+    public static final int GET_POSITION = 8;
+    public static final int GET_ROTATION = 9;
+
+    // Mesh3D
+    public static final int RENDER = 10;
+    public static final int CLEAN_UP = 11;
+    public static final int IS_TEXTURED = 12;
+    public static final int GET_MATERIAL = 13;
+    public static final int SET_MATERIAL = 14;
+
+    // Source
+    public static final int PLAY = 15;
+    public static final int STOP = 16;
+    public static final int PAUSE = 17;
+    public static final int SET_LOOPING = 18;
+    public static final int SET_VELOCITY = 19;
+    public static final int SET_VOLUME = 20;
+    public static final int SET_PITCH = 21;
+    public static final int IS_PLAYING = 22;
+
+    // Rigid bodies
+    public static final int RE_INITIALIZE = 23;
+    public static final int SET_COLLISION_SHAPE = 24;
+    public static final int TRANSLATE = 25;
+    public static final int GET_RIGIDBODY = 26;
+    public static final int DETECT_COLLISION = 27;
+
+    // Sent by the message queue in place of the answer a request will not get, with the opcode of the request as
+    // int payload, see MessageQueue.dispatch.
+    public static final int UNANSWERED = 28;
+
+    /**
+     * Names of the opcodes, by code. The predefined ones keep the instruction strings used so far.
+     */
+    private static final List<String> names = new ArrayList<>(Arrays.asList(
+            "return", "mouseEvent", "keyboardEvent",
+            "setPosition", "setRotation", "setScale", "rotate", "setParent", "getPosition", "getRotation",
+            "render", "cleanUp", "isTextured()", "getMaterial", "setMaterial",
+            "play", "stop", "pause", "setLooping", "setVelocity", "setVolume", "setPitch", "isPlaying",
+            "reInitialize", "setCollisionShape", "translate", "getRigidbody", "detectCollision",
+            "unanswered"));
+
+    private static final Map<String, Integer> codes = new ConcurrentHashMap<>();
+
+    static {
+        for(int code = 0; code < names.size(); code++) {
+            codes.put(names.get(code), code);
+        }
+    }
+
+    private Opcodes() {
+
+    }
+
+    /**
+     * @param instruction name of an instruction.
+     * @return its opcode, given on the first call for instructions unknown to the engine.
+     */
+    public static int of(String instruction) {
+        Integer code = codes.get(instruction);
+        return code != null ? code : register(instruction);
+    }
+
+    private static synchronized int register(String instruction) {
+        Integer code = codes.get(instruction);
+        if(code == null) {
+            code = names.size();
+            names.add(instruction);
+            codes.put(instruction, code);
+        }
+        return code;
+    }
+
+    /**
+     * @param opcode an opcode.
+     * @return the name of the instruction, or null if the opcode was never given.
+     */
+    public static synchronized String nameOf(int opcode) {
+        return opcode >= 0 && opcode < names.size() ? names.get(opcode) : null;
+    }
+}
@@ -1,8 +1,10 @@
 package Engine.System.Component;
 
-import Engine.GameEngine;
 import Engine.Main.Entity;
 import Engine.System.Component.Messaging.Message;
+import Engine.System.Component.Messaging.Opcodes;
+import Engine.World;
+import org.joml.Matrix4f;
 import org.joml.Vector3f;
 
 
@@ -12,15 +14,36 @@ import org.joml.Vector3f;
 
 public class Transform extends BaseComponent implements Component {
 
-    protected Vector3f position;
-    protected Vector3f rotation;
-    protected Vector3f scale;
+    /**
+     * Storage holding the actual values of the transform.
+     */
+    private final TransformStore store;
+
+    /**
+     * Index of the transform in the store.
+     */
+    private final int slot;
+
+    /**
+     * Transform this one is attached to, or null.
+     */
+    private Transform parent;
+
+    // Views returned by the getters, refreshed from the store on each call.
+    private final Vector3f position = new Vector3f();
+    private final Vector3f rotation = new Vector3f();
+    private final Vector3f scale = new Vector3f();
+
+    private boolean released = false;
 
     public Transform(Entity entity) {
+        this(entity, TransformStore.getInstance());
+    }
+
+    public Transform(Entity entity, TransformStore store) {
         super(entity);
-        this.position = new Vector3f();
-        this.rotation = new Vector3f();
-        this.scale = new Vector3f(1f, 1f, 1f);
+        this.store = store;
+        this.slot = store.allocate();
     }
 
     @Override
@@ -33,33 +56,34 @@ public class Transform extends BaseComponent implements Component {
 
     @Override
     public void onMessage(Message message) {
-        Message<Object[]> returnMessage = null;
-        switch (message.getInstruction()) {
-            case "setPosition":
-                setPosition((Vector3f)message.getData());
+        switch (message.getOpcode()) {
+            case Opcodes.SET_POSITION:
+                setPosition(message.getX(), message.getY(), message.getZ());
+                break;
+            case Opcodes.SET_ROTATION:
+                setRotation(message.getX(), message.getY(), message.getZ());
                 break;
-            case "setRotation":
-                setRotation((Vector3f)message.getData());
+            case Opcodes.SET_SCALE:
+                setScale(message.getFloat());
                 break;
-            case "setScale":
-                setScale((float)message.getData());
+            case Opcodes.ROTATE:
+                rotate(message.getX(), message.getY(), message.getZ());
                 break;
-            case "rotate":
-                rotate((Vector3f)message.getData());
+            case Opcodes.SET_PARENT:
+                // The data is the ID of the parent transform, or null to detach.
+                Component parent = message.getData() == null ? null
+                        : World.current().getComponentManager().getComponentFromID(message.getInt());
+                setParent(parent instanceof Transform ? (Transform)parent : null);
                 break;
-            case "getPosition":
+            case Opcodes.GET_POSITION:
                 // Create a new message to send the return value to the scriptingSystem
-                Object[] returnPosition = {Vector3f.class, getPosition()};
-                returnMessage = new Message<>(getID(), message.getSender(), "return", returnPosition);
-                // Send it
-                GameEngine.messageQueue.add(returnMessage);
+                Object[] returnPosition = {Vector3f.class, new Vector3f(getPosition())};
+                World.current().getMessageQueue().reply(message, returnPosition);
                 break;
-            case "getRotation":
+            case Opcodes.GET_ROTATION:
                 // Create a new message to send the return value to the scriptingSystem
-                Object[] returnRotation = {Vector3f.class, getRotation()};
-               returnMessage = new Message<>(getID(), message.getSender(), "return", returnRotation);
-                // Send it
-                GameEngine.messageQueue.add(returnMessage);
+                Object[] returnRotation = {Vector3f.class, new Vector3f(getRotation())};
+                World.current().getMessageQueue().reply(message, returnRotation);
                 break;
             default:
                 System.out.println(message.getInstruction() + ": Corresponding method can't be found");
@@ -67,73 +91,149 @@ public class Transform extends BaseComponent implements Component {
         }
     }
 
+    public TransformStore getStore() {
+        return this.store;
+    }
+
+    public int getSlot() {
+        return this.slot;
+    }
+
+    /**
+     * Give the slot back to the store once the entity is destroyed. The transform must not be used afterwards.
+     */
+    public void release() {
+        if(!this.released) {
+            this.released = true;
+            this.store.release(this.slot);
+        }
+    }
+
+    public Transform getParent() {
+        return this.parent;
+    }
+
+    /**
+     * Attach the transform to another one. Its position, rotation and scale become relative to the parent.
+     * @param parent transform to attach to, stored in the same store, or null to detach.
+     */
+    public void setParent(Transform parent) {
+        if(parent != null && parent.getStore() != this.store)
+            throw new IllegalArgumentException("Transform: the parent must belong to the same store.");
+
+        this.store.setParent(this.slot, parent == null ? TransformStore.NO_PARENT : parent.getSlot());
+        this.parent = parent;
+    }
+
+    /**
+     * @return a view of the position, relative to the parent if any. It is refreshed on each call and must not be modified.
+     */
     public Vector3f getPosition() {
-        return position;
+        return read(this.store.getPositions(), this.position);
     }
 
     public void setPosition(Vector3f position) {
-        this.position = position;
+        this.setPosition(position.x, position.y, position.z);
     }
 
     public void setPosition(float x, float y, float z) {
-        this.position.x = x;
-        this.position.y = y;
-        this.position.z = z;
+        write(this.store.getPositions(), x, y, z);
     }
 
+    /**
+     * @return a view of the rotation. It is refreshed on each call and must not be modified.
+     */
     public Vector3f getRotation() {
-        return this.rotation;
+        return read(this.store.getRotations(), this.rotation);
     }
 
     public void setRotation(Vector3f rotation) {
-        this.rotation = rotation;
+        this.setRotation(rotation.x, rotation.y, rotation.z);
     }
 
     public void setRotation(float x, float y, float z) {
-        this.rotation.x = x;
-        this.rotation.y = y;
-        this.rotation.z = z;
+        write(this.store.getRotations(), x, y, z);
     }
 
     public void rotate(float offsetX, float offsetY, float offsetZ) {
-        this.rotation.x += offsetX;
-        this.rotation.y += offsetY;
-        this.rotation.z += offsetZ;
+        float[] rotations = this.store.getRotations();
+        int offset = this.slot * TransformStore.STRIDE;
+        rotations[offset] += offsetX;
+        rotations[offset + 1] += offsetY;
+        rotations[offset + 2] += offsetZ;
+        this.store.markDirty(this.slot);
     }
 
     public void rotate(Vector3f vect) {
-        this.rotation.x += vect.x;
-        this.rotation.y += vect.y;
-        this.rotation.z += vect.z;
+        this.rotate(vect.x, vect.y, vect.z);
     }
 
+    /**
+     * @return a view of the scale. It is refreshed on each call and must not be modified.
+     */
     public Vector3f getScale() {
-        return scale;
+        return read(this.store.getScales(), this.scale);
     }
 
     public void setScale(Vector3f scale) {
-        this.scale = scale;
+        write(this.store.getScales(), scale.x, scale.y, scale.z);
     }
 
     public void setScale(float s) {
-        this.scale.x = s;
-        this.scale.y = s;
-        this.scale.z = s;
+        write(this.store.getScales(), s, s, s);
     }
 
     public void movePosition(float offsetX, float offsetY, float offsetZ) {
+        float[] positions = this.store.getPositions();
+        int offset = this.slot * TransformStore.STRIDE;
+        float rotationY = this.store.getRotations()[offset + 1];
+
         if (offsetZ != 0) {
-            position.x += (float) Math.sin(Math.toRadians(rotation.y)) * -1.0f * offsetZ;
-            position.z += (float) Math.cos(Math.toRadians(rotation.y)) * offsetZ;
+            positions[offset] += (float) Math.sin(Math.toRadians(rotationY)) * -1.0f * offsetZ;
+            positions[offset + 2] += (float) Math.cos(Math.toRadians(rotationY)) * offsetZ;
         }
         if (offsetX != 0) {
-            position.x += (float) Math.sin(Math.toRadians(rotation.y - 90)) * -1.0f * offsetX;
-            position.z += (float) Math.cos(Math.toRadians(rotation.y - 90)) * offsetX;
+            positions[offset] += (float) Math.sin(Math.toRadians(rotationY - 90)) * -1.0f * offsetX;
+            positions[offset + 2] += (float) Math.cos(Math.toRadians(rotationY - 90)) * offsetX;
         }
-        position.y += offsetY;
+        positions[offset + 1] += offsetY;
+        this.store.markDirty(this.slot);
     }
 
     public void movePosition(Vector3f offset) {
         this.movePosition(offset.x, offset.y, offset.z);
     }
+
+    /**
+     * Copy the world matrix of the transform, recomputing it only if the transform or its ancestors changed.
+     * @param dest matrix receiving the world matrix.
+     * @return dest.
+     */
+    public Matrix4f getWorldMatrix(Matrix4f dest) {
+        return dest.set(this.store.getWorldMatrices(), this.store.updateWorldMatrix(this.slot));
+    }
+
+    /**
+     * Copy the position of the transform in world space.
+     * @param dest vector receiving the position.
+     * @return dest.
+     */
+    public Vector3f getWorldPosition(Vector3f dest) {
+        float[] worldMatrices = this.store.getWorldMatrices();
+        int offset = this.store.updateWorldMatrix(this.slot);
+        return dest.set(worldMatrices[offset + 12], worldMatrices[offset + 13], worldMatrices[offset + 14]);
+    }
+
+    private Vector3f read(float[] values, Vector3f view) {
+        int offset = this.slot * TransformStore.STRIDE;
+        return view.set(values[offset], values[offset + 1], values[offset + 2]);
+    }
+
+    private void write(float[] values, float x, float y, float z) {
+        int offset = this.slot * TransformStore.STRIDE;
+        values[offset] = x;
+        values[offset + 1] = y;
+        values[offset + 2] = z;
+        this.store.markDirty(this.slot);
+    }
 }
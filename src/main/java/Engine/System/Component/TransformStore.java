@@ -0,0 +1,475 @@
+package Engine.System.Component;
+
+import Engine.World;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Structure-of-arrays storage of every transform of the engine.
+ * Positions, rotations and scales are packed in float arrays, three floats per slot, so that bulk iterations
+ * walk contiguous memory. A Transform is a lightweight view over one slot of the store.
+ * Those values are local to the parent of the slot, if any. World matrices are cached per slot (sixteen floats,
+ * column-major, ready to be uploaded to GL) and only recomputed when the slot or one of its ancestors changed.
+ */
+public class TransformStore {
+
+    /**
+     * Number of floats used by a vector in the arrays.
+     */
+    public static final int STRIDE = 3;
+
+    /**
+     * Number of floats used by a matrix in the arrays.
+     */
+    public static final int MATRIX_STRIDE = 16;
+
+    /**
+     * Value of the parent of a slot that has none.
+     */
+    public static final int NO_PARENT = -1;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Below this number of slots, a level of the hierarchy is propagated on the calling thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    private float[] positions;
+
+    private float[] rotations;
+
+    private float[] scales;
+
+    private float[] worldMatrices;
+
+    /**
+     * World matrices saved before the last simulation step, used to interpolate between two steps.
+     */
+    private float[] previousWorldMatrices;
+
+    /**
+     * Local rotations saved with the previous world matrices, e.g. to interpolate the view of a camera.
+     */
+    private float[] previousRotations;
+
+    /**
+     * Whether a slot existed when the previous world matrices were saved.
+     */
+    private boolean[] hasPrevious;
+
+    /**
+     * Whether the local values of a slot changed since its world matrix was computed.
+     */
+    private boolean[] dirty;
+
+    /**
+     * Parent slot of every slot, or NO_PARENT.
+     */
+    private int[] parents;
+
+    /**
+     * Incremented every time the world matrix of a slot is recomputed.
+     */
+    private int[] worldVersions;
+
+    /**
+     * Version of the parent world matrix used for the last computation of a slot.
+     */
+    private int[] parentVersions;
+
+    /**
+     * Slots sorted breadth-first: every parent comes before its children.
+     */
+    private int[] order;
+
+    /**
+     * Start of every depth level in the order array, followed by the end of the last one.
+     */
+    private int[] levelStarts;
+
+    private int levelsCount;
+
+    private boolean hierarchyChanged;
+
+    /**
+     * Scratch matrices used to compute world matrices: local, parent and result.
+     */
+    private final ThreadLocal<Matrix4f[]> matrices = ThreadLocal.withInitial(
+            () -> new Matrix4f[]{new Matrix4f(), new Matrix4f(), new Matrix4f()});
+
+    /**
+     * Scratch values used to blend two world matrices: both matrices, then their translations, rotations and
+     * scales.
+     */
+    private static final class Blend {
+        private final Matrix4f previous = new Matrix4f();
+        private final Matrix4f current = new Matrix4f();
+        private final Vector3f previousTranslation = new Vector3f();
+        private final Vector3f currentTranslation = new Vector3f();
+        private final Quaternionf previousRotation = new Quaternionf();
+        private final Quaternionf currentRotation = new Quaternionf();
+        private final Vector3f previousScale = new Vector3f();
+        private final Vector3f currentScale = new Vector3f();
+    }
+
+    private final ThreadLocal<Blend> blends = ThreadLocal.withInitial(Blend::new);
+
+    /**
+     * Number of slots ever handed out. Released slots are kept in the free list.
+     */
+    private int size;
+
+    private int[] freeSlots;
+
+    private int freeSlotsCount;
+
+    public TransformStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public TransformStore(int capacity) {
+        this.positions = new float[capacity * STRIDE];
+        this.rotations = new float[capacity * STRIDE];
+        this.scales = new float[capacity * STRIDE];
+        this.worldMatrices = new float[capacity * MATRIX_STRIDE];
+        this.previousWorldMatrices = new float[capacity * MATRIX_STRIDE];
+        this.previousRotations = new float[capacity * STRIDE];
+        this.hasPrevious = new boolean[capacity];
+        this.dirty = new boolean[capacity];
+        this.parents = new int[capacity];
+        this.worldVersions = new int[capacity];
+        this.parentVersions = new int[capacity];
+        this.order = new int[0];
+        this.levelStarts = new int[1];
+        this.levelsCount = 0;
+        this.hierarchyChanged = true;
+        this.freeSlots = new int[capacity];
+        this.size = 0;
+        this.freeSlotsCount = 0;
+    }
+
+    /**
+     * @return the store of the current world.
+     */
+    public static TransformStore getInstance() {
+        return World.current().getTransformStore();
+    }
+
+    /**
+     * Reserve a slot initialized to the identity transform.
+     * @return the index of the slot.
+     */
+    public synchronized int allocate() {
+        int slot;
+
+        if(this.freeSlotsCount > 0) {
+            slot = this.freeSlots[--this.freeSlotsCount];
+        } else {
+            if(this.size == this.dirty.length) {
+                grow();
+            }
+            slot = this.size++;
+        }
+
+        int offset = slot * STRIDE;
+        for(int i = 0; i < STRIDE; i++) {
+            this.positions[offset + i] = 0;
+            this.rotations[offset + i] = 0;
+            this.scales[offset + i] = 1;
+        }
+        this.dirty[slot] = true;
+        this.hasPrevious[slot] = false;
+        this.parents[slot] = NO_PARENT;
+        this.hierarchyChanged = true;
+
+        return slot;
+    }
+
+    /**
+     * Give a slot back to the store once its transform is discarded for good.
+     * @param slot index of the slot.
+     */
+    public synchronized void release(int slot) {
+        if(this.freeSlotsCount == this.freeSlots.length) {
+            this.freeSlots = Arrays.copyOf(this.freeSlots, this.freeSlots.length * 2);
+        }
+        this.freeSlots[this.freeSlotsCount++] = slot;
+
+        // Orphan the children of the released slot.
+        for(int child = 0; child < this.size; child++) {
+            if(this.parents[child] == slot) {
+                this.parents[child] = NO_PARENT;
+                this.dirty[child] = true;
+            }
+        }
+        this.parents[slot] = NO_PARENT;
+        this.hierarchyChanged = true;
+    }
+
+    /**
+     * The arrays are reallocated when the store grows: never keep a reference to them across allocations.
+     * @return the packed local positions, STRIDE floats per slot.
+     */
+    public float[] getPositions() {
+        return this.positions;
+    }
+
+    public float[] getRotations() {
+        return this.rotations;
+    }
+
+    public float[] getScales() {
+        return this.scales;
+    }
+
+    /**
+     * Attach a slot to a parent slot. Its values become relative to the parent.
+     * @param slot index of the child slot.
+     * @param parent index of the parent slot, or NO_PARENT to detach it.
+     */
+    public synchronized void setParent(int slot, int parent) {
+        // Refuse to create a cycle.
+        for(int ancestor = parent; ancestor != NO_PARENT; ancestor = this.parents[ancestor]) {
+            if(ancestor == slot)
+                throw new IllegalArgumentException("TransformStore: slot " + parent + " is a descendant of " + slot);
+        }
+
+        this.parents[slot] = parent;
+        this.dirty[slot] = true;
+        this.hierarchyChanged = true;
+    }
+
+    public int getParent(int slot) {
+        return this.parents[slot];
+    }
+
+    /**
+     * Flag the world matrix of a slot as outdated. Must be called after any write in the arrays.
+     * @param slot index of the slot.
+     */
+    public void markDirty(int slot) {
+        this.dirty[slot] = true;
+    }
+
+    public boolean isDirty(int slot) {
+        return this.dirty[slot];
+    }
+
+    /**
+     * Bring the world matrix of a single slot up to date, its ancestors included.
+     * @param slot index of the slot.
+     * @return the offset of the matrix in the world matrices array.
+     */
+    public int updateWorldMatrix(int slot) {
+        int parent = this.parents[slot];
+        if(parent != NO_PARENT) {
+            updateWorldMatrix(parent);
+        }
+        computeIfOutdated(slot);
+
+        return slot * MATRIX_STRIDE;
+    }
+
+    /**
+     * Bring every world matrix up to date in one breadth-first pass over the hierarchy.
+     * Only the slots that changed, or whose ancestors changed, are recomputed. The slots of a same depth level
+     * do not depend on each other, so large levels are processed in parallel.
+     */
+    public void propagate() {
+        if(this.hierarchyChanged) {
+            rebuildOrder();
+        }
+
+        for(int level = 0; level < this.levelsCount; level++) {
+            int start = this.levelStarts[level];
+            int end = this.levelStarts[level + 1];
+
+            if(end - start >= PARALLEL_THRESHOLD) {
+                IntStream.range(start, end).parallel().forEach(i -> computeIfOutdated(this.order[i]));
+            } else {
+                for(int i = start; i < end; i++) {
+                    computeIfOutdated(this.order[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the cached world matrices, MATRIX_STRIDE floats per slot. Only up to date after a propagation.
+     */
+    public float[] getWorldMatrices() {
+        return this.worldMatrices;
+    }
+
+    /**
+     * Save the current world matrices and rotations before a simulation step, so that rendering can blend
+     * between the states before and after the step.
+     */
+    public void savePreviousState() {
+        propagate();
+        System.arraycopy(this.worldMatrices, 0, this.previousWorldMatrices, 0, this.size * MATRIX_STRIDE);
+        System.arraycopy(this.rotations, 0, this.previousRotations, 0, this.size * STRIDE);
+        Arrays.fill(this.hasPrevious, 0, this.size, true);
+    }
+
+    /**
+     * Blend the saved world matrices with the current ones. The current matrices must be up to date.
+     * Translations, rotations and scales are blended separately, rotations along the shortest arc, so that a
+     * turning object keeps its size halfway through. Slots created since the last save take their current matrix.
+     * @param alpha weight of the current state, from 0 (saved state) to 1 (current state).
+     * @param dest array receiving MATRIX_STRIDE floats per slot, at least size() * MATRIX_STRIDE long.
+     */
+    public void interpolateWorldMatrices(float alpha, float[] dest) {
+        if(alpha >= 1) {
+            System.arraycopy(this.worldMatrices, 0, dest, 0, this.size * MATRIX_STRIDE);
+            return;
+        }
+
+        Blend blend = this.blends.get();
+        for(int slot = 0; slot < this.size; slot++) {
+            int offset = slot * MATRIX_STRIDE;
+            if(this.hasPrevious[slot] && !unchanged(offset)) {
+                blend.previous.set(this.previousWorldMatrices, offset);
+                blend.current.set(this.worldMatrices, offset);
+                blend.previous.getTranslation(blend.previousTranslation)
+                        .lerp(blend.current.getTranslation(blend.currentTranslation), alpha);
+                blend.previous.getNormalizedRotation(blend.previousRotation)
+                        .slerp(blend.current.getNormalizedRotation(blend.currentRotation), alpha);
+                blend.previous.getScale(blend.previousScale)
+                        .lerp(blend.current.getScale(blend.currentScale), alpha);
+                blend.current.translationRotateScale(blend.previousTranslation, blend.previousRotation,
+                        blend.previousScale).get(dest, offset);
+            } else {
+                System.arraycopy(this.worldMatrices, offset, dest, offset, MATRIX_STRIDE);
+            }
+        }
+    }
+
+    /**
+     * Blend the saved local rotation of a slot with its current one, angle by angle along the shortest way.
+     * @param slot index of the slot.
+     * @param alpha weight of the current state, from 0 (saved state) to 1 (current state).
+     * @param dest vector receiving the rotation, in degrees.
+     * @return dest.
+     */
+    public Vector3f interpolateRotation(int slot, float alpha, Vector3f dest) {
+        int offset = slot * STRIDE;
+        dest.set(this.rotations[offset], this.rotations[offset + 1], this.rotations[offset + 2]);
+        if(alpha >= 1 || !this.hasPrevious[slot])
+            return dest;
+
+        return dest.set(lerpAngle(this.previousRotations[offset], dest.x, alpha),
+                lerpAngle(this.previousRotations[offset + 1], dest.y, alpha),
+                lerpAngle(this.previousRotations[offset + 2], dest.z, alpha));
+    }
+
+    private static float lerpAngle(float from, float to, float alpha) {
+        float delta = (to - from) % 360;
+        if(delta > 180) {
+            delta -= 360;
+        } else if(delta < -180) {
+            delta += 360;
+        }
+        return from + delta * alpha;
+    }
+
+    // Most objects do not move between two steps: their matrix is copied as is.
+    private boolean unchanged(int offset) {
+        for(int i = offset; i < offset + MATRIX_STRIDE; i++) {
+            if(this.previousWorldMatrices[i] != this.worldMatrices[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of slots ever handed out, free ones included.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    private void computeIfOutdated(int slot) {
+        int parent = this.parents[slot];
+        boolean parentChanged = parent != NO_PARENT && this.parentVersions[slot] != this.worldVersions[parent];
+
+        if(!this.dirty[slot] && !parentChanged)
+            return;
+
+        Matrix4f[] scratch = this.matrices.get();
+        Matrix4f local = scratch[0];
+        int offset = slot * STRIDE;
+        local.translation(this.positions[offset], this.positions[offset + 1], this.positions[offset + 2]).
+                rotateX((float) Math.toRadians(-this.rotations[offset])).
+                rotateY((float) Math.toRadians(-this.rotations[offset + 1])).
+                rotateZ((float) Math.toRadians(-this.rotations[offset + 2])).
+                scale(this.scales[offset], this.scales[offset + 1], this.scales[offset + 2]);
+
+        if(parent != NO_PARENT) {
+            Matrix4f world = scratch[2];
+            scratch[1].set(this.worldMatrices, parent * MATRIX_STRIDE).mul(local, world);
+            world.get(this.worldMatrices, slot * MATRIX_STRIDE);
+            this.parentVersions[slot] = this.worldVersions[parent];
+        } else {
+            local.get(this.worldMatrices, slot * MATRIX_STRIDE);
+        }
+
+        this.dirty[slot] = false;
+        this.worldVersions[slot]++;
+    }
+
+    /**
+     * Sort the slots by depth so that every parent is processed before its children.
+     */
+    private synchronized void rebuildOrder() {
+        int[] depths = new int[this.size];
+        int maxDepth = 0;
+
+        for(int slot = 0; slot < this.size; slot++) {
+            int depth = 0;
+            for(int ancestor = this.parents[slot]; ancestor != NO_PARENT; ancestor = this.parents[ancestor]) {
+                depth++;
+            }
+            depths[slot] = depth;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        // Counting sort of the slots by depth.
+        this.levelsCount = this.size == 0 ? 0 : maxDepth + 1;
+        this.levelStarts = new int[this.levelsCount + 1];
+        for(int slot = 0; slot < this.size; slot++) {
+            this.levelStarts[depths[slot] + 1]++;
+        }
+        for(int level = 0; level < this.levelsCount; level++) {
+            this.levelStarts[level + 1] += this.levelStarts[level];
+        }
+
+        int[] cursors = Arrays.copyOf(this.levelStarts, this.levelsCount);
+        this.order = new int[this.size];
+        for(int slot = 0; slot < this.size; slot++) {
+            this.order[cursors[depths[slot]]++] = slot;
+        }
+
+        this.hierarchyChanged = false;
+    }
+
+    private void grow() {
+        int capacity = Math.max(1, this.dirty.length * 2);
+        this.positions = Arrays.copyOf(this.positions, capacity * STRIDE);
+        this.rotations = Arrays.copyOf(this.rotations, capacity * STRIDE);
+        this.scales = Arrays.copyOf(this.scales, capacity * STRIDE);
+        this.worldMatrices = Arrays.copyOf(this.worldMatrices, capacity * MATRIX_STRIDE);
+        this.previousWorldMatrices = Arrays.copyOf(this.previousWorldMatrices, capacity * MATRIX_STRIDE);
+        this.previousRotations = Arrays.copyOf(this.previousRotations, capacity * STRIDE);
+        this.hasPrevious = Arrays.copyOf(this.hasPrevious, capacity);
+        this.dirty = Arrays.copyOf(this.dirty, capacity);
+        this.parents = Arrays.copyOf(this.parents, capacity);
+        this.worldVersions = Arrays.copyOf(this.worldVersions, capacity);
+        this.parentVersions = Arrays.copyOf(this.parentVersions, capacity);
+    }
+}
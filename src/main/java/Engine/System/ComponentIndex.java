@@ -0,0 +1,98 @@
+package Engine.System;
+
+import Engine.Main.Entity;
+import Engine.System.Component.Archetype;
+import Engine.System.Component.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Live index of the components of a given type, used by a system to walk its members only.
+ * It is backed by the archetype storage, which is kept up to date by Entity.addComponent, Entity.removeComponent
+ * and the registration of entities in the MetadataManager.
+ */
+public class ComponentIndex {
+
+    /**
+     * Callback applied to every member of the index.
+     */
+    public interface Visitor {
+        void visit(Entity entity, Component component);
+    }
+
+    /**
+     * Callback told when a component leaves the index: it was removed from its entity, or its entity was removed.
+     */
+    public interface RemovalListener {
+        void removed(Entity entity, Component component);
+    }
+
+    private final Class<? extends Component> type;
+
+    /**
+     * Archetypes containing at least one component of the indexed type.
+     */
+    private final List<Archetype> archetypes;
+
+    private final List<RemovalListener> removalListeners = new CopyOnWriteArrayList<>();
+
+    public ComponentIndex(Class<? extends Component> type, List<Archetype> archetypes) {
+        this.type = type;
+        this.archetypes = archetypes;
+    }
+
+    /**
+     * Visit every indexed component, grouped by entity.
+     * @param visitor callback applied to each component. Keep it in a field to avoid allocating every frame.
+     */
+    public void forEach(Visitor visitor) {
+        for(int i = 0; i < this.archetypes.size(); i++) {
+            Archetype archetype = this.archetypes.get(i);
+            int[] columns = archetype.getColumnsFor(this.type);
+            for(int row = 0; row < archetype.size(); row++) {
+                Entity entity = archetype.getEntity(row);
+                for(int column : columns) {
+                    visitor.visit(entity, archetype.getComponent(column, row));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of components currently indexed.
+     */
+    public int size() {
+        int size = 0;
+        for(Archetype archetype : this.archetypes) {
+            size += archetype.size() * archetype.getColumnsFor(this.type).length;
+        }
+        return size;
+    }
+
+    /**
+     * @param listener callback told of every component leaving the index, e.g. to forget what was kept about it.
+     */
+    public void addRemovalListener(RemovalListener listener) {
+        this.removalListeners.add(listener);
+    }
+
+    /**
+     * Tell the listeners that a component left the index. Called by the ArchetypeManager.
+     * @param entity entity the component belonged to.
+     * @param component component leaving the index.
+     */
+    public void notifyRemoved(Entity entity, Component component) {
+        for(RemovalListener listener : this.removalListeners) {
+            listener.removed(entity, component);
+        }
+    }
+
+    public Class<? extends Component> getType() {
+        return this.type;
+    }
+
+    public List<Archetype> getArchetypes() {
+        return this.archetypes;
+    }
+}
@@ -1,6 +1,7 @@
 package Engine.System;
 
 import Engine.Main.Entity;
+import Engine.System.Component.Component;
 
 import java.util.List;
 
@@ -14,9 +15,65 @@ public interface GameSystem {
 
     void iterate(List<Entity> entities);
 
+    /**
+     * Iterate for one update of the given duration. Systems that do not depend on time ignore it.
+     * @param entities entities registered in the engine.
+     * @param timeStep duration of the update, in seconds.
+     */
+    void iterate(List<Entity> entities, float timeStep);
+
+    /**
+     * @return the type of components handled by the system.
+     */
+    Class<? extends Component> getRecognizedInterface();
+
+    /**
+     * @return the types of components read by the system. Systems only reading the same types can run concurrently.
+     */
+    List<Class<? extends Component>> getReadComponents();
+
+    /**
+     * @return the types of components written by the system. A system writing a type runs alone with respect to
+     * every other system reading or writing it.
+     */
+    List<Class<? extends Component>> getWrittenComponents();
+
     void cleanUp();
 
+    /**
+     * @return the name of the system in profiles and recordings.
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
     void setActiveState(boolean state);
 
     boolean isActive();
+
+    /**
+     * @return the number of times per second the system is updated, or 0 to update it on every update of the
+     * engine. Graphics and input are not updated but run once per frame.
+     */
+    int getUpdatesPerSecond();
+
+    /**
+     * Update the system less often than the engine, e.g. sound at 15 Hz while the engine updates at 60 Hz. The rate
+     * is rounded to a whole number of engine updates, and cannot be higher than the rate of the engine.
+     * @param updatesPerSecond number of updates per second, or 0 to update the system on every update of the engine.
+     */
+    void setUpdatesPerSecond(int updatesPerSecond);
+
+    /**
+     * @return the engine update, among the ones between two updates of the system, on which the system is updated,
+     * or -1 if the scheduler chooses it.
+     */
+    int getPhase();
+
+    /**
+     * By default, the scheduler spreads the systems updated less often than the engine over distinct engine
+     * updates, so that they do not all run in the same frame.
+     * @param phase the engine update, from 0, on which the system is updated, or -1 to let the scheduler choose.
+     */
+    void setPhase(int phase);
 }
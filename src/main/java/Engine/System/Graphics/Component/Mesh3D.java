@@ -1,11 +1,12 @@
 package Engine.System.Graphics.Component;
 
-import Engine.GameEngine;
 import Engine.Main.Entity;
 import Engine.Main.Material;
 import Engine.System.Component.BaseComponent;
 import Engine.System.Component.Messaging.Message;
+import Engine.System.Component.Messaging.Opcodes;
 import Engine.System.Graphics.GraphicsComponent;
+import Engine.World;
 import org.joml.Vector3f;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
@@ -82,6 +83,16 @@ public class Mesh3D extends BaseComponent implements GraphicsComponent {
         this.textureCoordinatesCount = textureCoordinates.length;
     }
 
+    /**
+     * Create a mesh sharing the geometry and the material of another one, e.g. to place a loaded model several times.
+     * @param entity entity the mesh is attached to.
+     * @param mesh mesh to copy.
+     */
+    public Mesh3D(Entity entity, Mesh3D mesh) {
+        this(entity, mesh.vertices, mesh.indices, mesh.normals, mesh.textureCoordinates);
+        this.material = mesh.material;
+    }
+
     @Override
     public void apply() {
         this.render();
@@ -90,30 +101,25 @@ public class Mesh3D extends BaseComponent implements GraphicsComponent {
     @Override
     public void onMessage(Message message) {
         Object[] returnValues = null;
-        Message<Object[]> returnMessage;
         try {
-            switch (message.getInstruction()) {
-                case "render":
+            switch (message.getOpcode()) {
+                case Opcodes.RENDER:
                     this.render();
                     break;
-                case "cleanUp":
+                case Opcodes.CLEAN_UP:
                     this.cleanUp();
                     break;
-                case "isTextured()":
+                case Opcodes.IS_TEXTURED:
                     // Create a new message to send the return value to the scriptingSystem
                     returnValues =  new Object[]{Boolean.class, isTextured()};
-                    returnMessage = new Message<>(getID(), message.getSender(), "return", returnValues);
-                    // Send it
-                    GameEngine.messageQueue.add(returnMessage);
+                    World.current().getMessageQueue().reply(message, returnValues);
                     break;
-                case "getMaterial":
+                case Opcodes.GET_MATERIAL:
                     // Create a new message to send the return value to the scriptingSystem
                     returnValues = new Object[]{Material.class, getMaterial()};
-                    returnMessage = new Message<>(getID(), message.getSender(), "return", returnValues);
-                    // Send it
-                    GameEngine.messageQueue.add(returnMessage);
+                    World.current().getMessageQueue().reply(message, returnValues);
                     break;
-                case "setMaterial":
+                case Opcodes.SET_MATERIAL:
                     setMaterial((Material)message.getData());
                     break;
                 default:
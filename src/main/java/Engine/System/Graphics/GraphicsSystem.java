@@ -1,21 +1,18 @@
 package Engine.System.Graphics;
 
 import Engine.Main.Entity;
-import Engine.Main.Light.DirectionalLight;
-import Engine.Main.Light.PointLight;
-import Engine.Main.Light.SpotLight;
 import Engine.ShadersHandler;
 import Engine.System.BaseSystem;
 import Engine.System.Component.Component;
-import Engine.System.Graphics.Component.Mesh3D;
-import Engine.TransformationUtils;
 import Engine.Utils;
 import Engine.Window;
+import Engine.World;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
-import org.joml.Vector4f;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.lwjgl.opengl.GL11.glViewport;
 import static org.lwjgl.opengl.GL20.glDisableVertexAttribArray;
@@ -41,16 +38,32 @@ public class GraphicsSystem extends BaseSystem {
 
     private static final int MAX_SPOT_LIGHTS = 5;
 
-    private Matrix4f projectionMatrix;
+    private final Matrix4f projectionMatrix = new Matrix4f();
 
-    private Matrix4f viewMatrix;
+    private final Matrix4f modelViewMatrix = new Matrix4f();
 
     private Camera camera;
 
     private Vector3f ambientLight;
 
+    /**
+     * Position of the frame between the last two simulation steps, see setInterpolationAlpha.
+     */
+    private float interpolationAlpha = 1;
+
     private boolean isInitialized = false;
 
+    /**
+     * Graphics components whose buffers have already been created. Components are forgotten by the thread running
+     * the simulation when they are removed, while the render thread adds them.
+     */
+    private Set<Component> initializedComponents = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Snapshot captured and rendered on the same thread when no render thread is used.
+     */
+    private final SceneSnapshot snapshot = new SceneSnapshot();
+
     public GraphicsSystem(Window window) {
         this.window = window;
 
@@ -59,7 +72,7 @@ public class GraphicsSystem extends BaseSystem {
 
     public void resetProjectionMatrix() throws Exception {
         float aspectRatio = (float) window.getWidth() / window.getHeight();
-        projectionMatrix = new Matrix4f().perspective(FOV, aspectRatio,
+        projectionMatrix.setPerspective(FOV, aspectRatio,
                 Z_NEAR, Z_FAR);
         System.out.println("Projection matrix reset with aspect ratio: " + aspectRatio + " to:\n" + projectionMatrix);
         shadersHandler.setUniform("projectionMatrix", projectionMatrix);
@@ -70,8 +83,34 @@ public class GraphicsSystem extends BaseSystem {
         glDisableVertexAttribArray(0);
     }
 
+    /**
+     * A component added again is initialized again.
+     */
+    @Override
+    protected void onComponentRemoved(Entity entity, Component component) {
+        this.initializedComponents.remove(component);
+    }
+
     @Override
     public void iterate(List<Entity> entities) {
+        captureSnapshot(this.snapshot);
+        render(this.snapshot);
+    }
+
+    /**
+     * Capture what has to be drawn. Must be called from the thread running the simulation.
+     * @param snapshot snapshot to fill.
+     */
+    public void captureSnapshot(SceneSnapshot snapshot) {
+        snapshot.capture(this.camera, World.current().getMetadataManager().getLights(), this.ambientLight,
+                getComponentIndex(), MAX_POINT_LIGHTS, MAX_SPOT_LIGHTS, this.interpolationAlpha);
+    }
+
+    /**
+     * Draw a captured scene. Must be called from the thread owning the GL context.
+     * @param snapshot snapshot to draw.
+     */
+    public void render(SceneSnapshot snapshot) {
         if (window.isResized()) {
             try {
                 resetProjectionMatrix();
@@ -82,63 +121,38 @@ public class GraphicsSystem extends BaseSystem {
             window.setResized(false);
         }
 
-        // Update the view matrix.
-        Matrix4f viewMatrix = TransformationUtils.getViewMatrix(camera);
+        shadersHandler.bind();
 
-        int currentPointLightIndex = 0, currentSpotLightIndex = 0;
+        for (int i = 0; i < snapshot.getPointLights().size(); i++) {
+            shadersHandler.setUniform("pointLights", snapshot.getPointLights().get(i), i);
+        }
+        for (int i = 0; i < snapshot.getSpotLights().size(); i++) {
+            shadersHandler.setUniform("spotLights", snapshot.getSpotLights().get(i), i);
+        }
+        if(snapshot.getDirectionalLight() != null) {
+            shadersHandler.setUniform("directionalLight", snapshot.getDirectionalLight());
+        }
 
-        for (Entity entity : entities) {
-            // Update the model-view matrix for the current entity.
-            shadersHandler.setUniform("modelViewMatrix",
-                    TransformationUtils.getModelViewMatrix(entity, viewMatrix));
+        shadersHandler.setUniform("ambientLight", snapshot.getAmbientLight());
+        shadersHandler.setUniform("specularPower", 10f);
 
-            shadersHandler.bind();
+        shadersHandler.unbind();
 
-            if(entity instanceof PointLight && currentPointLightIndex < MAX_POINT_LIGHTS) {
-                PointLight currentPointLight = new PointLight((PointLight) entity);
-                Vector3f lightPosition = currentPointLight.getPosition();
-                Vector4f viewPosition = new Vector4f(lightPosition, 1);
-                viewPosition.mul(viewMatrix);
-                lightPosition.x = viewPosition.x;
-                lightPosition.y = viewPosition.y;
-                lightPosition.z = viewPosition.z;
-                shadersHandler.setUniform("pointLights", currentPointLight, currentPointLightIndex);
-                currentPointLightIndex++;
-            } else if(entity instanceof DirectionalLight) {
-                DirectionalLight currentDirectionalLight = new DirectionalLight((DirectionalLight) entity);
-                Vector4f viewDirection = new Vector4f(currentDirectionalLight.getDirection(), 0);
-                viewDirection.mul(viewMatrix);
-                currentDirectionalLight.setDirection(new Vector3f(viewDirection.x, viewDirection.y, viewDirection.z));
-                shadersHandler.setUniform("directionalLight", currentDirectionalLight);
-            } else if(entity instanceof SpotLight && currentSpotLightIndex < MAX_SPOT_LIGHTS) {
-                SpotLight currentSpotLight = new SpotLight((SpotLight) entity);
-                Vector4f viewDirection = new Vector4f(currentSpotLight.getConeDirection(), 0);
-                viewDirection.mul(viewMatrix);
-                currentSpotLight.setConeDirection(new Vector3f(viewDirection.x, viewDirection.y, viewDirection.z));
-                Vector3f lightPosition = currentSpotLight.getPointLight().getPosition();
-
-                Vector4f aux = new Vector4f(lightPosition, 1);
-                aux.mul(viewMatrix);
-                lightPosition.x = aux.x;
-                lightPosition.y = aux.y;
-                lightPosition.z = aux.z;
-
-                shadersHandler.setUniform("spotLights", currentSpotLight, currentSpotLightIndex);
-                currentSpotLightIndex++;
-            }
+        for (int i = 0; i < snapshot.size(); i++) {
+            Component component = snapshot.getComponent(i);
+
+            // Update the model-view matrix for the current entity.
+            shadersHandler.setUniform("modelViewMatrix", snapshot.getModelViewMatrix(i, this.modelViewMatrix));
 
-            shadersHandler.setUniform("ambientLight", ambientLight);
-            shadersHandler.setUniform("specularPower", 10f);
+            shadersHandler.bind();
 
-            for (Component component : getLocalSystemComponentsFor(entity)) {
-                if(component instanceof Mesh3D) {
-                    if(((Mesh3D) component).getMaterial() != null)
-                        shadersHandler.setUniform("material", ((Mesh3D) component).getMaterial());
-                }
+            if(snapshot.getMaterial(i) != null)
+                shadersHandler.setUniform("material", snapshot.getMaterial(i));
 
+            if(this.initializedComponents.add(component)) {
                 component.initialize();
-                component.apply();
             }
+            component.apply();
 
             shadersHandler.unbind();
         }
@@ -179,6 +193,15 @@ public class GraphicsSystem extends BaseSystem {
         this.camera = camera;
     }
 
+    /**
+     * Blend the transforms between the last two simulation steps, to keep motion smooth when the simulation
+     * runs at a lower rate than the rendering.
+     * @param alpha 0 to draw the previous step, 1 to draw the last one.
+     */
+    public void setInterpolationAlpha(float alpha) {
+        this.interpolationAlpha = alpha;
+    }
+
     public void setAmbientLight(Vector3f ambientLight) {
         this.ambientLight = ambientLight;
     }
@@ -0,0 +1,46 @@
+package Engine.System.Graphics;
+
+/**
+ * Graphics system of a headless engine. It captures the scene like the real one, so the cost of the capture is
+ * still measured, but never touches GL: nothing is drawn.
+ */
+public class HeadlessGraphicsSystem extends GraphicsSystem {
+
+    private long frames = 0;
+
+    private long capturedComponents = 0;
+
+    public HeadlessGraphicsSystem() {
+        super(null);
+    }
+
+    @Override
+    public void initialize() throws Exception {
+
+    }
+
+    @Override
+    public void render(SceneSnapshot snapshot) {
+        this.frames++;
+        this.capturedComponents += snapshot.size();
+    }
+
+    @Override
+    public void cleanUp() {
+
+    }
+
+    /**
+     * @return the number of frames captured since the engine started.
+     */
+    public long getFrames() {
+        return this.frames;
+    }
+
+    /**
+     * @return the number of graphics components captured since the engine started, all frames included.
+     */
+    public long getCapturedComponents() {
+        return this.capturedComponents;
+    }
+}
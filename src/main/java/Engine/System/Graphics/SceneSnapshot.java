@@ -0,0 +1,208 @@
+package Engine.System.Graphics;
+
+import Engine.Main.Entity;
+import Engine.Main.Light.DirectionalLight;
+import Engine.Main.Light.PointLight;
+import Engine.Main.Light.SpotLight;
+import Engine.Main.Material;
+import Engine.System.Component.Component;
+import Engine.System.Component.TransformStore;
+import Engine.System.ComponentIndex;
+import Engine.System.Graphics.Component.Mesh3D;
+import Engine.TransformationUtils;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.joml.Vector4f;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Everything the graphics system needs to draw one frame: the view matrix, the world matrices of the
+ * transforms, the lights in view space and the list of graphics components with their material.
+ * It is filled at the end of an update and left untouched while it is rendered, so that the simulation can
+ * go on while another thread renders. Arrays and light copies are reused from one capture to the next.
+ */
+public class SceneSnapshot {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Matrix4f viewMatrix = new Matrix4f();
+
+    private float[] worldMatrices = new float[0];
+
+    private final Vector3f ambientLight = new Vector3f();
+
+    private final List<PointLight> pointLights = new ArrayList<>();
+
+    private final List<SpotLight> spotLights = new ArrayList<>();
+
+    // Copies reused from one capture to the next. Lights are entities: copying them every frame is not free.
+    private final List<PointLight> pointLightsPool = new ArrayList<>();
+
+    private final List<SpotLight> spotLightsPool = new ArrayList<>();
+
+    private DirectionalLight directionalLightCopy;
+
+    private DirectionalLight directionalLight;
+
+    private Component[] components = new Component[INITIAL_CAPACITY];
+
+    private int[] slots = new int[INITIAL_CAPACITY];
+
+    private Material[] materials = new Material[INITIAL_CAPACITY];
+
+    private int count;
+
+    private final Vector4f aux = new Vector4f();
+
+    private final ComponentIndex.Visitor captureVisitor = (entity, component) -> add(entity, component);
+
+    /**
+     * Capture the current state of the scene. Must be called from the thread running the simulation.
+     * @param camera camera the scene is seen from.
+     * @param lights lights of the scene.
+     * @param ambientLight ambient light of the scene, or null.
+     * @param index graphics components to draw.
+     * @param maxPointLights maximum number of point lights kept.
+     * @param maxSpotLights maximum number of spot lights kept.
+     * @param alpha interpolation factor between the previous simulation step (0) and the last one (1).
+     */
+    public void capture(Camera camera, List<Entity> lights, Vector3f ambientLight, ComponentIndex index,
+                        int maxPointLights, int maxSpotLights, float alpha) {
+        // Bring the world matrices of the moved hierarchies up to date, then keep a blended copy of them.
+        TransformStore store = TransformStore.getInstance();
+        store.propagate();
+        int matricesLength = store.size() * TransformStore.MATRIX_STRIDE;
+        if(this.worldMatrices.length < matricesLength) {
+            this.worldMatrices = new float[matricesLength];
+        }
+        store.interpolateWorldMatrices(alpha, this.worldMatrices);
+
+        TransformationUtils.getViewMatrix(camera, this.worldMatrices, alpha, this.viewMatrix);
+
+        if(ambientLight != null)
+            this.ambientLight.set(ambientLight);
+
+        captureLights(lights, maxPointLights, maxSpotLights);
+
+        this.count = 0;
+        index.forEach(this.captureVisitor);
+    }
+
+    public Matrix4f getViewMatrix() {
+        return this.viewMatrix;
+    }
+
+    /**
+     * Compute the model-view matrix of a captured component.
+     * @param item index of the component in the snapshot.
+     * @param dest matrix receiving the result.
+     * @return dest.
+     */
+    public Matrix4f getModelViewMatrix(int item, Matrix4f dest) {
+        return dest.set(this.worldMatrices, this.slots[item] * TransformStore.MATRIX_STRIDE).mulLocal(this.viewMatrix);
+    }
+
+    public Vector3f getAmbientLight() {
+        return this.ambientLight;
+    }
+
+    /**
+     * @return the point lights, already in view space.
+     */
+    public List<PointLight> getPointLights() {
+        return this.pointLights;
+    }
+
+    /**
+     * @return the spot lights, already in view space.
+     */
+    public List<SpotLight> getSpotLights() {
+        return this.spotLights;
+    }
+
+    /**
+     * @return the directional light, already in view space, or null.
+     */
+    public DirectionalLight getDirectionalLight() {
+        return this.directionalLight;
+    }
+
+    /**
+     * @return the number of captured graphics components.
+     */
+    public int size() {
+        return this.count;
+    }
+
+    public Component getComponent(int item) {
+        return this.components[item];
+    }
+
+    public Material getMaterial(int item) {
+        return this.materials[item];
+    }
+
+    private void add(Entity entity, Component component) {
+        if(this.count == this.components.length) {
+            int capacity = this.components.length * 2;
+            this.components = Arrays.copyOf(this.components, capacity);
+            this.slots = Arrays.copyOf(this.slots, capacity);
+            this.materials = Arrays.copyOf(this.materials, capacity);
+        }
+
+        this.components[this.count] = component;
+        this.slots[this.count] = entity.getTransform().getSlot();
+        this.materials[this.count] = component instanceof Mesh3D ? ((Mesh3D) component).getMaterial() : null;
+        this.count++;
+    }
+
+    private void captureLights(List<Entity> lights, int maxPointLights, int maxSpotLights) {
+        this.pointLights.clear();
+        this.spotLights.clear();
+        this.directionalLight = null;
+
+        for(int i = 0; i < lights.size(); i++) {
+            Entity entity = lights.get(i);
+
+            if(entity instanceof PointLight && this.pointLights.size() < maxPointLights) {
+                if(this.pointLightsPool.size() == this.pointLights.size())
+                    this.pointLightsPool.add(new PointLight((PointLight) entity));
+                PointLight copy = this.pointLightsPool.get(this.pointLights.size());
+                copyPointLight((PointLight) entity, copy);
+                this.pointLights.add(copy);
+            } else if(entity instanceof DirectionalLight) {
+                DirectionalLight light = (DirectionalLight) entity;
+                if(this.directionalLightCopy == null)
+                    this.directionalLightCopy = new DirectionalLight(light);
+                this.directionalLightCopy.getColor().set(light.getColor());
+                this.directionalLightCopy.setIntensity(light.getIntensity());
+                toViewSpace(light.getDirection(), 0, this.directionalLightCopy.getDirection());
+                this.directionalLight = this.directionalLightCopy;
+            } else if(entity instanceof SpotLight && this.spotLights.size() < maxSpotLights) {
+                SpotLight light = (SpotLight) entity;
+                if(this.spotLightsPool.size() == this.spotLights.size())
+                    this.spotLightsPool.add(new SpotLight(light));
+                SpotLight copy = this.spotLightsPool.get(this.spotLights.size());
+                copyPointLight(light.getPointLight(), copy.getPointLight());
+                toViewSpace(light.getConeDirection(), 0, copy.getConeDirection());
+                copy.setCutOff(light.getCutOff());
+                this.spotLights.add(copy);
+            }
+        }
+    }
+
+    private void copyPointLight(PointLight source, PointLight copy) {
+        copy.getColor().set(source.getColor());
+        copy.setIntensity(source.getIntensity());
+        copy.setAttenuation(source.getAttenuation());
+        toViewSpace(source.getPosition(), 1, copy.getPosition());
+    }
+
+    private void toViewSpace(Vector3f vector, float w, Vector3f dest) {
+        this.aux.set(vector, w).mul(this.viewMatrix);
+        dest.set(this.aux.x, this.aux.y, this.aux.z);
+    }
+}
@@ -0,0 +1,82 @@
+package Engine.System.Graphics;
+
+/**
+ * Double buffer of scene snapshots shared by the simulation and the render thread.
+ * The simulation fills the back snapshot while the render thread draws the front one, then publishes it.
+ * Publishing waits for the render thread to be done with the front snapshot, since it becomes the next back one.
+ */
+public class SceneSnapshotBuffer {
+
+    private SceneSnapshot front = new SceneSnapshot();
+
+    private SceneSnapshot back = new SceneSnapshot();
+
+    /**
+     * Whether the front snapshot has been published since it was last acquired.
+     */
+    private boolean fresh = false;
+
+    private boolean rendering = false;
+
+    private boolean closed = false;
+
+    /**
+     * @return the snapshot to fill. Only the simulation thread may use it, until publish is called.
+     */
+    public synchronized SceneSnapshot getBack() {
+        return this.back;
+    }
+
+    /**
+     * Hand the back snapshot over to the render thread.
+     * @throws InterruptedException if the thread is interrupted while the front snapshot is being rendered.
+     */
+    public synchronized void publish() throws InterruptedException {
+        while(this.rendering && !this.closed) {
+            wait();
+        }
+
+        SceneSnapshot published = this.back;
+        this.back = this.front;
+        this.front = published;
+        this.fresh = true;
+        notifyAll();
+    }
+
+    /**
+     * Wait for a snapshot to be published and start rendering it. The same snapshot is never rendered twice.
+     * @return the snapshot to render, or null once the buffer is closed.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public synchronized SceneSnapshot acquire() throws InterruptedException {
+        while(!this.fresh && !this.closed) {
+            wait();
+        }
+        if(this.closed)
+            return null;
+
+        this.fresh = false;
+        this.rendering = true;
+        return this.front;
+    }
+
+    /**
+     * Signal that the snapshot given by acquire has been rendered.
+     */
+    public synchronized void release() {
+        this.rendering = false;
+        notifyAll();
+    }
+
+    /**
+     * Wake up both threads for good, e.g. when the window is closed.
+     */
+    public synchronized void close() {
+        this.closed = true;
+        notifyAll();
+    }
+
+    public synchronized boolean isClosed() {
+        return this.closed;
+    }
+}
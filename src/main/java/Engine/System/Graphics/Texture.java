@@ -1,5 +1,7 @@
 package Engine.System.Graphics;
 
+import Engine.Helper.Events.AssetLoadEvent;
+import Engine.Helper.Events.Events;
 import de.matthiasmann.twl.utils.PNGDecoder;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL13;
@@ -34,6 +36,21 @@ public class Texture {
     }
 
     private static int loadTexture(String fileName) {
+        AssetLoadEvent event = Events.ENABLED ? new AssetLoadEvent() : null;
+        if(event != null)
+            event.begin();
+
+        int textureId = uploadTexture(fileName);
+
+        if(event != null && event.shouldCommit()) {
+            event.type = "Texture";
+            event.file = fileName;
+            event.commit();
+        }
+        return textureId;
+    }
+
+    private static int uploadTexture(String fileName) {
         // Load Texture file
         ByteBuffer buf = null;
         PNGDecoder decoder = null;
@@ -3,11 +3,14 @@ package Engine.System.Input;
 import Engine.Main.Entity;
 import Engine.System.BaseSystem;
 import Engine.System.Component.Component;
+import Engine.System.ComponentIndex;
 import Engine.System.Component.Messaging.Message;
 import Engine.System.Component.Messaging.MessageQueue;
+import Engine.System.Component.Messaging.Opcodes;
 import Engine.System.Input.Component.KeyboardListener;
 import Engine.System.Input.Component.MouseListener;
 import Engine.Window;
+import Engine.World;
 
 import java.util.List;
 
@@ -22,6 +25,27 @@ public class InputSystem extends BaseSystem {
 
     private MessageQueue messageQueue;
 
+    private ComponentIndex mouseListeners;
+
+    private ComponentIndex keyboardListeners;
+
+    /**
+     * Input events are broadcast: every listener is given the same read-only message, created once.
+     */
+    private Message<MouseInput> mouseEvent;
+
+    private Message<Window> keyboardEvent;
+
+    private final ComponentIndex.Visitor mouseVisitor = (entity, component) -> component.onMessage(this.mouseEvent);
+
+    private final ComponentIndex.Visitor keyboardVisitor = (entity, component) ->
+            component.onMessage(this.keyboardEvent);
+
+    /**
+     * @param window window the events come from, or null for a headless engine: listeners are then still walked,
+     *               but the mouse never moves and there are no keys to read.
+     * @param messageQueue message queue of the world.
+     */
     public InputSystem(Window window, MessageQueue messageQueue) {
         this.window = window;
         this.messageQueue = messageQueue;
@@ -35,6 +59,10 @@ public class InputSystem extends BaseSystem {
     @Override
     public void initialize() throws Exception {
         this.mouseInput = new MouseInput(window);
+        this.mouseEvent = new Message<>(Message.NO_ID, Message.NO_ID, Opcodes.MOUSE_EVENT, this.mouseInput);
+        this.keyboardEvent = new Message<>(Message.NO_ID, Message.NO_ID, Opcodes.KEYBOARD_EVENT, this.window);
+        this.mouseListeners = World.current().getArchetypeManager().createIndex(MouseListener.class);
+        this.keyboardListeners = World.current().getArchetypeManager().createIndex(KeyboardListener.class);
     }
 
     @Override
@@ -46,17 +74,10 @@ public class InputSystem extends BaseSystem {
     public void iterate(List<Entity> entities) {
         this.mouseInput.handleInput();
 
-        for(Entity entity : entities) {
-            for(Component component : getLocalSystemComponentsFor(entity)) {
-                if(MouseListener.class.isAssignableFrom(component.getClass())) {
-                    component.onMessage(new Message(null, component.getID(), "mouseEvent", this.mouseInput));
-                }
-
-                if (KeyboardListener.class.isAssignableFrom(component.getClass())) {
-                    component.onMessage(new Message(null, component.getID(), "keyboardEvent", window));
-                }
-            }
-        }
+        this.mouseListeners.forEach(this.mouseVisitor);
+        // Keyboard listeners read the keys from the window.
+        if(this.window != null)
+            this.keyboardListeners.forEach(this.keyboardVisitor);
     }
 
 }
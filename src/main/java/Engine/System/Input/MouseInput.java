@@ -26,7 +26,17 @@ public class MouseInput extends Component {
 
     private boolean rightButtonPressed = false;
 
+    /**
+     * @param window window whose cursor is followed, or null for a headless engine: the mouse then never moves.
+     */
     public MouseInput(Window window) {
+        previousPosition = new Vector2d();
+        currentPosition = new Vector2d();
+        displayVector = new Vector2f();
+
+        if(window == null)
+            return;
+
         glfwSetCursorEnterCallback(window.getWindowHandle(), (windowHandle, entered) -> {
             cursorInWindow = entered;
         });
@@ -36,10 +46,6 @@ public class MouseInput extends Component {
             rightButtonPressed = button == GLFW_MOUSE_BUTTON_2 && action == GLFW_PRESS;
         });
 
-        previousPosition = new Vector2d();
-        currentPosition = new Vector2d();
-        displayVector = new Vector2f();
-
         glfwSetCursorPosCallback(window.getWindowHandle(), (windowHandle, xPosition, yPosition) -> {
             currentPosition.x = xPosition;
             currentPosition.y = yPosition;
@@ -1,8 +1,9 @@
 package Engine.System.Physics.Component;
 
-import Engine.GameEngine;
 import Engine.Main.Entity;
 import Engine.System.Component.Messaging.Message;
+import Engine.System.Component.Messaging.Opcodes;
+import Engine.World;
 import com.bulletphysics.collision.shapes.BoxShape;
 import com.bulletphysics.dynamics.RigidBody;
 import com.bulletphysics.dynamics.RigidBodyConstructionInfo;
@@ -42,9 +43,8 @@ public class BoxRigidBodyComponent extends RigidBodyComponent {
     
     @Override
     public void onMessage(Message message) {
-        Message<Object[]> returnMessage = null;
-        switch (message.getInstruction()) {
-            case "reInitialize":
+        switch (message.getOpcode()) {
+            case Opcodes.RE_INITIALIZE:
                 this.motionState = new DefaultMotionState(
                         new Transform(
                                 new Matrix4f(
@@ -56,23 +56,19 @@ public class BoxRigidBodyComponent extends RigidBodyComponent {
                                         1f)));
                 this.rigidBody.setMotionState(this.motionState);
                 break;
-            case "setCollisionShape":
-                setCollisionShape((Vector3f)message.getData());
+            case Opcodes.SET_COLLISION_SHAPE:
+                setCollisionShape(new Vector3f(message.getX(), message.getY(), message.getZ()));
                 break;
-            case "translate":
-                this.getRigidBody().translate((Vector3f)message.getData());
+            case Opcodes.TRANSLATE:
+                this.getRigidBody().translate(new Vector3f(message.getX(), message.getY(), message.getZ()));
                 break;
-            case "getRigidbody":
+            case Opcodes.GET_RIGIDBODY:
                 Object[] returnRigidbody = {RigidBody.class, this.getRigidBody()};
-                returnMessage =
-                        new Message<>(getID(), message.getSender(), "return", returnRigidbody);
-                GameEngine.messageQueue.add(returnMessage);
+                World.current().getMessageQueue().reply(message, returnRigidbody);
                 break;
-            case "detectCollision":
+            case Opcodes.DETECT_COLLISION:
                 Object[] returnBool = {Boolean.class, this.getRigidBody().checkCollideWith((RigidBody)message.getData())};
-                returnMessage =
-                        new Message<>(getID(), message.getSender(), "return", returnBool);
-                GameEngine.messageQueue.add(returnMessage);
+                World.current().getMessageQueue().reply(message, returnBool);
                 break;
             default:
                 System.out.println(message.getInstruction() + ": Corresponding method can't be found");
@@ -16,6 +16,7 @@ import javax.vecmath.Quat4f;
 import javax.vecmath.Vector3f;
 
 import static com.bulletphysics.collision.dispatch.CollisionObject.DISABLE_DEACTIVATION;
+import static com.bulletphysics.collision.dispatch.CollisionObject.ISLAND_SLEEPING;
 
 /*
  * @author Matthieu Le Boucher <matt.leboucher@gmail.com>
@@ -94,7 +95,8 @@ public abstract class RigidBodyComponent extends BasePhysicsComponent {
         constructionInfo.angularDamping = this.angularDamping;
 
         this.rigidBody = new RigidBody(constructionInfo);
-        this.rigidBody.setActivationState(DISABLE_DEACTIVATION);
+        // Static bodies never move: letting them sleep spares the update of their bounding box on every step.
+        this.rigidBody.setActivationState(this.mass == 0 ? ISLAND_SLEEPING : DISABLE_DEACTIVATION);
     }
 
     public void setMass(float mass) { this.mass = mass; }
@@ -23,6 +23,7 @@ import com.bulletphysics.linearmath.Transform;
 import javax.vecmath.Quat4f;
 import javax.vecmath.Vector3f;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -32,38 +33,75 @@ import java.util.Set;
  */
 
 public class PhysicsSystem extends BaseSystem {
+    /**
+     * Internal step of the simulation, the default of JBullet: longer updates are split into several steps.
+     */
+    private static final float FIXED_TIME_STEP = 1 / 60f;
+
     private float simulationTimeStep;
     /**
      * Instance of the physical world.
      */
     private DynamicsWorld dynamicsWorld;
 
-    private List<Entity> trackedEntities = new ArrayList<>();
+    private Set<Entity> trackedEntities = new HashSet<>();
 
     /**
      * Stores all the rigid bodies that exist within the world.
      */
     private Set<RigidBodyComponent> rigidBodiesComponents = new HashSet<>();
 
+    /**
+     * Same rigid bodies, walked by index on every step: iterating over the set would allocate an iterator.
+     */
+    private List<RigidBodyComponent> simulatedBodies = new ArrayList<>();
+
+    /**
+     * Bounds of the sweep and prune broadphase, or null to use the default dynamic AABB tree.
+     */
+    private Vector3f worldAabbMin;
+
+    private Vector3f worldAabbMax;
+
+    private int maxBodies;
+
+    // Scratch objects reused on every step.
+    private final Transform worldTransform = new Transform();
+
+    private final Quat4f rotation = new Quat4f();
+
+    private final List<Component> localComponents = new ArrayList<>();
+
 	@Override
     public Class<? extends Component> getRecognizedInterface() {
         return PhysicsComponent.class;
     }
 
+    /**
+     * The simulation moves the transforms of the rigid bodies.
+     */
+    @Override
+    public List<Class<? extends Component>> getWrittenComponents() {
+        return Arrays.asList(PhysicsComponent.class, Engine.System.Component.Transform.class);
+    }
+
     @Override
     public void cleanUp() {
 
     }
 
+    @Override
     public void iterate(List<Entity> entities, float timeStep) {
-        dynamicsWorld.stepSimulation(timeStep);
+        // Enough steps to simulate the whole update, also when the system runs less often than the engine, plus
+        // one for the time left over by the previous update.
+        int maxSubSteps = (int) (timeStep / FIXED_TIME_STEP) + 1;
+        dynamicsWorld.stepSimulation(timeStep, maxSubSteps, FIXED_TIME_STEP);
 
-        for (RigidBodyComponent rigidBodyComponent : rigidBodiesComponents) {
+        for (int i = 0; i < simulatedBodies.size(); i++) {
+            RigidBodyComponent rigidBodyComponent = simulatedBodies.get(i);
             MotionState motionState = rigidBodyComponent.getRigidBody().getMotionState();
-            Transform worldTransform = new Transform();
             motionState.getWorldTransform(worldTransform);
             rigidBodyComponent.getEntity().getTransform().setPosition(worldTransform.origin.x, worldTransform.origin.y, worldTransform.origin.z);
-            Quat4f rotation = new Quat4f();
             worldTransform.getRotation(rotation);
             rigidBodyComponent.getEntity().getTransform().rotate(QuaternionHelper.getPitch(rotation), QuaternionHelper.getRoll(rotation), QuaternionHelper.getYaw(rotation));
         }
@@ -71,7 +109,12 @@ public class PhysicsSystem extends BaseSystem {
 
     @Override
     public void initialize() throws Exception {
-        BroadphaseInterface broadphase = new DbvtBroadphase();
+        BroadphaseInterface broadphase;
+        if(worldAabbMin != null) {
+            broadphase = new SweepAndPruneBroadphase(worldAabbMin, worldAabbMax, maxBodies);
+        } else {
+            broadphase = new DbvtBroadphase();
+        }
         CollisionConfiguration collisionConfiguration = new DefaultCollisionConfiguration();
         CollisionDispatcher collisionDispatcher = new CollisionDispatcher(collisionConfiguration);
         ConstraintSolver constraintSolver = new SequentialImpulseConstraintSolver();
@@ -87,44 +130,74 @@ public class PhysicsSystem extends BaseSystem {
     }
 
     public void addEntity(Entity entity) {
-        List<Component> components = getLocalSystemComponentsFor(entity);
+        List<Component> components = getLocalSystemComponentsFor(entity, localComponents);
 
-        if (components.isEmpty())
-            return;
+        for(int i = 0; i < components.size(); i++) {
+            addComponent(components.get(i));
+        }
+    }
 
-        trackedEntities.add(entity);
+    public void removeEntity(Entity entity) {
+	    if (trackedEntities.remove(entity)) {
+            List<Component> components = getLocalSystemComponentsFor(entity, localComponents);
 
-        for(Component component : components) {
-            component.initialize();
+            for(int i = 0; i < components.size(); i++) {
+                removeComponent(components.get(i));
+            }
+        }
+    }
 
-            if(component instanceof BoxRigidBodyComponent || component instanceof SphereRigidBodyComponent) {
-                RigidBody rigidBody = ((RigidBodyComponent) component).getRigidBody();
+    /**
+     * Start simulating a physics component, e.g. when it is added to an entity already in the world.
+     * @param component component to simulate.
+     */
+    public void addComponent(Component component) {
+        trackedEntities.add(component.getEntity());
 
-                rigidBodiesComponents.add((RigidBodyComponent) component);
+        component.initialize();
 
-                if(dynamicsWorld != null)
-                    dynamicsWorld.addRigidBody(rigidBody);
-            }
+        if(component instanceof BoxRigidBodyComponent || component instanceof SphereRigidBodyComponent) {
+            RigidBody rigidBody = ((RigidBodyComponent) component).getRigidBody();
+
+            if(rigidBodiesComponents.add((RigidBodyComponent) component))
+                simulatedBodies.add((RigidBodyComponent) component);
+
+            if(dynamicsWorld != null)
+                dynamicsWorld.addRigidBody(rigidBody);
         }
     }
 
-    public void removeEntity(Entity entity) {
-	    if (trackedEntities.contains(entity)) {
-            trackedEntities.remove(entity);
-
-            for(Component component : getLocalSystemComponentsFor(entity)) {
-                if(component instanceof BoxRigidBodyComponent || component instanceof SphereRigidBodyComponent) {
-                    RigidBody rigidBody = ((RigidBodyComponent) component).getRigidBody();
+    /**
+     * Stop simulating a physics component.
+     * @param component component to remove from the simulation.
+     */
+    public void removeComponent(Component component) {
+        if(component instanceof BoxRigidBodyComponent || component instanceof SphereRigidBodyComponent) {
+            RigidBody rigidBody = ((RigidBodyComponent) component).getRigidBody();
 
-                    rigidBodiesComponents.remove(rigidBody);
+            if(rigidBodiesComponents.remove(component))
+                simulatedBodies.remove(component);
 
-                    if(dynamicsWorld != null)
-                        dynamicsWorld.removeRigidBody(rigidBody);
-                }
-            }
+            if(dynamicsWorld != null)
+                dynamicsWorld.removeRigidBody(rigidBody);
         }
     }
 
+    /**
+     * Bound the simulated space, to use a sweep and prune broadphase instead of the dynamic AABB tree.
+     * The tree allocates while it looks for overlapping pairs; sweep and prune works in arrays preallocated for
+     * maxBodies bodies, so the broadphase steps without allocating. Bodies leaving the bounds are clamped to
+     * their edges, which slows the collision detection down. Must be called before the system is initialized.
+     * @param min lowest corner of the simulated space.
+     * @param max highest corner of the simulated space.
+     * @param maxBodies maximum number of rigid bodies simulated at once.
+     */
+    public void setWorldBounds(Vector3f min, Vector3f max, int maxBodies) {
+        this.worldAabbMin = new Vector3f(min);
+        this.worldAabbMax = new Vector3f(max);
+        this.maxBodies = maxBodies;
+    }
+
     public float getSimulationTimeStep() {
         return simulationTimeStep;
     }
@@ -0,0 +1,59 @@
+package Engine.System.Physics;
+
+import com.bulletphysics.collision.broadphase.AxisSweep3_32;
+import com.bulletphysics.collision.broadphase.Dispatcher;
+
+import javax.vecmath.Vector3f;
+
+/**
+ * Sweep and prune broadphase of JBullet, without its allocations: the bounds of a moved body are quantized into
+ * arrays kept from one update to the next instead of two new arrays per body and per step.
+ * Like the rest of the simulation, it must be stepped by a single thread at a time.
+ */
+public class SweepAndPruneBroadphase extends AxisSweep3_32 {
+
+    private final int[] min = new int[3];
+
+    private final int[] max = new int[3];
+
+    /**
+     * @param worldAabbMin lowest corner of the simulated space.
+     * @param worldAabbMax highest corner of the simulated space.
+     * @param maxBodies maximum number of bodies in the broadphase at once.
+     */
+    public SweepAndPruneBroadphase(Vector3f worldAabbMin, Vector3f worldAabbMax, int maxBodies) {
+        super(worldAabbMin, worldAabbMax, maxBodies);
+    }
+
+    @Override
+    public void updateHandle(int handle, Vector3f aabbMin, Vector3f aabbMax, Dispatcher dispatcher) {
+        Handle pHandle = getHandle(handle);
+
+        quantize(this.min, aabbMin, 0);
+        quantize(this.max, aabbMax, 1);
+
+        // Same sort as AxisSweep3Internal.updateHandle.
+        for(int axis = 0; axis < 3; axis++) {
+            int emin = pHandle.getMinEdges(axis);
+            int emax = pHandle.getMaxEdges(axis);
+
+            int dmin = this.min[axis] - this.pEdges[axis].getPos(emin);
+            int dmax = this.max[axis] - this.pEdges[axis].getPos(emax);
+
+            this.pEdges[axis].setPos(emin, this.min[axis]);
+            this.pEdges[axis].setPos(emax, this.max[axis]);
+
+            // Expand (only adds overlaps).
+            if(dmin < 0)
+                sortMinDown(axis, emin, dispatcher, true);
+            if(dmax > 0)
+                sortMaxUp(axis, emax, dispatcher, true);
+
+            // Shrink (only removes overlaps).
+            if(dmin > 0)
+                sortMinUp(axis, emin, dispatcher, true);
+            if(dmax < 0)
+                sortMaxDown(axis, emax, dispatcher, true);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package Engine.System;
+
+import Engine.Main.Entity;
+import Engine.System.Component.Component;
+
+import java.util.List;
+
+/**
+ * Stand-in for a system that needs a device the engine does not have, e.g. the sound system of a headless
+ * engine. It applies nothing: it only counts its iterations and the components it would have handled.
+ */
+public class RecordingSystem extends BaseSystem {
+
+    private final Class<? extends Component> recognizedInterface;
+
+    private final String name;
+
+    private long iterations = 0;
+
+    private long visitedComponents = 0;
+
+    private final ComponentIndex.Visitor recordVisitor = (entity, component) -> this.visitedComponents++;
+
+    public RecordingSystem(Class<? extends Component> recognizedInterface) {
+        this.recognizedInterface = recognizedInterface;
+        this.name = "RecordingSystem (" + recognizedInterface.getSimpleName() + ")";
+    }
+
+    @Override
+    public Class<? extends Component> getRecognizedInterface() {
+        return this.recognizedInterface;
+    }
+
+    /**
+     * Stand-ins of different systems are told apart by the components they recognize.
+     */
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public void initialize() throws Exception {
+
+    }
+
+    @Override
+    public void iterate(List<Entity> entities) {
+        this.iterations++;
+        getComponentIndex().forEach(this.recordVisitor);
+    }
+
+    @Override
+    public void cleanUp() {
+
+    }
+
+    public long getIterations() {
+        return this.iterations;
+    }
+
+    /**
+     * @return the number of components the system would have applied since the engine started.
+     */
+    public long getVisitedComponents() {
+        return this.visitedComponents;
+    }
+}
@@ -1,17 +1,23 @@
 package Engine.System.Scripting;
 
-import Engine.GameEngine;
 import Engine.Helper.Loader.OBJLoader;
 import Engine.Main.Entity;
 import Engine.System.Component.Component;
 import Engine.System.Component.Messaging.Message;
+import Engine.System.Component.Messaging.MessageQueue;
+import Engine.System.Component.Messaging.Opcodes;
 import Engine.System.Component.Transform;
 import Engine.System.Graphics.Component.Mesh3D;
 import Engine.System.Physics.Component.BoxRigidBodyComponent;
+import Engine.System.Physics.Component.RigidBodyComponent;
 import Engine.System.Scripting.Component.Script;
 import Engine.System.Sound.Component.Source;
+import Engine.World;
+import org.joml.Vector3f;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
@@ -27,10 +33,16 @@ public abstract class BaseScript {
 
     private int scriptID;
 
-    private ArrayDeque<Callback> waitingQueue;
+    // Requests waiting for their answer, by correlation ID.
+    private Map<Integer, CompletableFuture<Object>> pendingRequests;
+
+    // Components of the entity of the script, found on first use.
+    private RigidBodyComponent rigidBody;
+
+    private Source source;
 
         public BaseScript() {
-        this.waitingQueue = new ArrayDeque<>();
+        this.pendingRequests = new ConcurrentHashMap<>();
     }
 
     private void setEntity(Entity entity) {
@@ -43,11 +55,22 @@ public abstract class BaseScript {
 
     public void onMessage(Message message) {
         try {
-            switch (message.getInstruction()) {
-                case "return":
+            switch (message.getOpcode()) {
+                case Opcodes.RETURN:
+                    CompletableFuture<Object> request = this.pendingRequests.remove(message.getCorrelationID());
+                    if(request == null) {
+                        System.out.println("Answer from component " + message.getSender() + " matches no request.");
+                        break;
+                    }
+                    // No data when the receiver of the request was gone.
                     Object[] returnValues = (Object[])message.getData();
-                    Callback callback = this.waitingQueue.poll();
-                    callback.call(returnValues[1]);
+                    request.complete(returnValues == null ? null : returnValues[1]);
+                    break;
+                case Opcodes.UNANSWERED:
+                    CompletableFuture<Object> failedRequest = this.pendingRequests.remove(message.getCorrelationID());
+                    if(failedRequest != null)
+                        failedRequest.completeExceptionally(new IllegalStateException("Component "
+                                + message.getSender() + " gave no answer to " + Opcodes.nameOf(message.getInt()) + "."));
                     break;
                 default:
                     System.out.println(message.getInstruction() + ": Corresponding instruction can't be found");
@@ -61,6 +84,77 @@ public abstract class BaseScript {
     }
 
 
+    /**
+     * Direct access to the transform of the entity of the script. Reads and writes apply at once, unlike messages
+     * which wait for the next dispatch: messages remain for the components of other entities, and deferred work.
+     * @return the transform of the entity.
+     */
+    protected Transform getTransform() {
+        return this.entity.getTransform();
+    }
+
+    /**
+     * Direct access to the rigid body of the entity of the script, see getTransform.
+     * @return the rigid body of the entity, or null if it has none.
+     */
+    protected RigidBodyComponent getRigidBody() {
+        if(!isLive(this.rigidBody))
+            this.rigidBody = findComponent(RigidBodyComponent.class);
+        return this.rigidBody;
+    }
+
+    /**
+     * Direct access to the sound source of the entity of the script, see getTransform.
+     * @return the first sound source of the entity, or null if it has none.
+     */
+    protected Source getSource() {
+        if(!isLive(this.source))
+            this.source = findComponent(Source.class);
+        return this.source;
+    }
+
+    /**
+     * @param dest vector receiving the position of the entity, relative to its parent if any.
+     * @return dest.
+     */
+    protected Vector3f getPosition(Vector3f dest) {
+        return dest.set(this.entity.getTransform().getPosition());
+    }
+
+    protected void setPosition(float x, float y, float z) {
+        this.entity.getTransform().setPosition(x, y, z);
+    }
+
+    /**
+     * @param dest vector receiving the rotation of the entity, in degrees.
+     * @return dest.
+     */
+    protected Vector3f getRotation(Vector3f dest) {
+        return dest.set(this.entity.getTransform().getRotation());
+    }
+
+    protected void setRotation(float x, float y, float z) {
+        this.entity.getTransform().setRotation(x, y, z);
+    }
+
+    /**
+     * @param component component found earlier.
+     * @return false if the component is missing or was removed from the world since.
+     */
+    private boolean isLive(Component component) {
+        return component != null
+                && World.current().getComponentManager().getComponentFromID(component.getID()) == component;
+    }
+
+    private <T extends Component> T findComponent(Class<T> type) {
+        List<Component> components = this.entity.getComponents();
+        for(int i = 0; i < components.size(); i++) {
+            if(type.isInstance(components.get(i)))
+                return type.cast(components.get(i));
+        }
+        return null;
+    }
+
     /**
      * Let the user get IDs from Components he's looking for
      * @param type component type we're looking for.
@@ -104,48 +198,46 @@ public abstract class BaseScript {
     }
 
     protected Entity getEntity(Integer entityID) {
-        // Find the entity that match the id
-        List<Entity> firstResult = GameEngine.metadataManager.getEntities().stream()
-                                .filter(entity1 -> entity1.getUniqueID() == entityID)
-                                .collect(Collectors.toList());
-        if(!firstResult.isEmpty()) {
-            return firstResult.get(0);
-        } else {
-            return null;
-        }
+        // Stale IDs, e.g. of removed entities, give null.
+        return entityID == null ? null : World.current().getMetadataManager().getEntity(entityID);
     }
 
     protected List<Integer> getEntities() {
-        List<Integer> test = GameEngine.metadataManager.getEntities().stream()
-                                    .mapToInt(entity -> entity.getUniqueID())
-                                    .boxed()
-                                    .collect(Collectors.toList());
-        return test;
+        List<Entity> entities = World.current().getMetadataManager().getEntities();
+        List<Integer> results = new ArrayList<>(entities.size());
+        for(int i = 0; i < entities.size(); i++) {
+            results.add(entities.get(i).getUniqueID());
+        }
+        return results;
     }
 
     protected List<Integer> getEntitiesWithTag(String tag) {
-        return GameEngine.metadataManager.getEntities().stream()
-                                    .filter(entity1 -> entity1.getTag() == tag)
-                                    .mapToInt(entity -> entity.getUniqueID())
-                                    .boxed()
-                                    .collect(Collectors.toList());
+        List<Entity> entities = World.current().getMetadataManager().getEntities();
+        List<Integer> results = new ArrayList<>();
+        for(int i = 0; i < entities.size(); i++) {
+            if(Objects.equals(entities.get(i).getTag(), tag))
+                results.add(entities.get(i).getUniqueID());
+        }
+        return results;
     }
 
     protected List<Integer> getEntitiesByName(String name) {
-        return GameEngine.metadataManager.getEntities().stream()
-                                    .filter(entity1 -> entity1.getName() == name)
-                                    .mapToInt(entity -> entity.getUniqueID())
-                                    .boxed()
-                                    .collect(Collectors.toList());
+        List<Entity> entities = World.current().getMetadataManager().getEntities();
+        List<Integer> results = new ArrayList<>();
+        for(int i = 0; i < entities.size(); i++) {
+            if(Objects.equals(entities.get(i).getName(), name))
+                results.add(entities.get(i).getUniqueID());
+        }
+        return results;
     }
 
     protected void removeComponentFromEntitiy(Integer entityID, Integer componentID) {
+        Entity entity;
         if((entity = getEntity(entityID)) != null) {
-            List<Component> components = entity.getComponents();
-            Iterator<Component> iterator = components.iterator();
-            while(iterator.hasNext()) {
-                if(iterator.next().getID() == componentID) {
-                    iterator.remove();
+            // Systems may be iterating over the components: the removal is applied at the next sync point.
+            for(Component component : entity.getComponents()) {
+                if(component.getID() == componentID) {
+                    World.current().getCommandBuffer().removeComponent(entity, component);
                 }
             }
         }
@@ -158,10 +250,29 @@ public abstract class BaseScript {
      * @param data arguments sent.
      */
     protected void callMethodComponent(int componentID, String command, Object data) {
-        // Create the message
-        Message<Object> message = new Message<>(this.scriptID, componentID, command, data);
         // Send the message to the messageQueue
-        GameEngine.messageQueue.add(message);
+        World.current().getMessageQueue().send(this.scriptID, componentID, Opcodes.of(command), data);
+    }
+
+    /**
+     * Let the script call a function without argument nor return statement, see Opcodes.
+     * @param componentID Component we want to use.
+     * @param opcode function we want to call.
+     */
+    protected void callMethodComponent(int componentID, int opcode) {
+        World.current().getMessageQueue().send(this.scriptID, componentID, opcode);
+    }
+
+    protected void callMethodComponent(int componentID, int opcode, int value) {
+        World.current().getMessageQueue().send(this.scriptID, componentID, opcode, value);
+    }
+
+    protected void callMethodComponent(int componentID, int opcode, float value) {
+        World.current().getMessageQueue().send(this.scriptID, componentID, opcode, value);
+    }
+
+    protected void callMethodComponent(int componentID, int opcode, float x, float y, float z) {
+        World.current().getMessageQueue().send(this.scriptID, componentID, opcode, x, y, z);
     }
 
     /**
@@ -172,13 +283,56 @@ public abstract class BaseScript {
      * @param callback will be execute once the function return the value.
      */
     protected void callReturnMethodComponent(Integer componentID, String command, Object data, Callback callback) {
-        // Method 1 : Hardcore
-        // Create the message
-        Message<Object> message = new Message<>(this.scriptID, componentID, command, data);
-        // Send the message to the messageQueue
-        GameEngine.messageQueue.add(message);
-        // Register the callback for an answer
-        this.waitingQueue.add(callback);
+        this.requestMethodComponent(componentID, command, data).whenComplete((result, exception) -> {
+            if(exception != null) {
+                System.out.println(command + ": " + exception.getMessage());
+                return;
+            }
+            try {
+                callback.call(result);
+            } catch (ClassCastException castException) {
+                System.out.println("Data sent can't be converted into the right type.");
+                castException.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Let the script call a function with a return statement. Each answer is matched to its request, so any number
+     * of requests may be waiting at once, to any components.
+     * @param componentID Component we want to use.
+     * @param command function we want to call.
+     * @param data arguments sent.
+     * @return the future value returned by the function, on the next dispatch of the messages. The value is null
+     * if the component is gone, and the future fails if the component gives no answer or the message queue is full.
+     */
+    protected <T> CompletableFuture<T> requestMethodComponent(int componentID, String command, Object data) {
+        return requestMethodComponent(componentID, Opcodes.of(command), data);
+    }
+
+    /**
+     * Let the script call a function without argument but with a return statement, see Opcodes.
+     * @param componentID Component we want to use.
+     * @param opcode function we want to call.
+     * @return the future value returned by the function, see requestMethodComponent.
+     */
+    protected <T> CompletableFuture<T> requestMethodComponent(int componentID, int opcode) {
+        return requestMethodComponent(componentID, opcode, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> requestMethodComponent(int componentID, int opcode, Object data) {
+        MessageQueue messageQueue = World.current().getMessageQueue();
+        CompletableFuture<Object> request = new CompletableFuture<>();
+
+        // Registered before sending: the answer may be dispatched by another thread.
+        int correlationID = messageQueue.nextCorrelationID();
+        this.pendingRequests.put(correlationID, request);
+        if(!messageQueue.request(this.scriptID, componentID, opcode, data, correlationID)) {
+            this.pendingRequests.remove(correlationID);
+            request.completeExceptionally(new IllegalStateException("The message queue is full."));
+        }
+        return (CompletableFuture<T>) request;
     }
 
 }
@@ -1,5 +1,7 @@
 package Engine.System.Scripting.Component;
 
+import Engine.Helper.Events.Events;
+import Engine.Helper.Events.ScriptUpdateEvent;
 import Engine.Main.Entity;
 import Engine.Main.ScriptFile;
 import Engine.System.Component.BaseComponent;
@@ -11,6 +13,8 @@ import Engine.System.Scripting.ScriptingComponent;
  */
 public class Script extends BaseComponent implements ScriptingComponent {
 
+    private static final Class<?>[] ON_MESSAGE_PARAMETERS = {Message.class};
+
     // This component will contains a path to the script we need to execute.
     private ScriptFile script;
 
@@ -44,10 +48,9 @@ public class Script extends BaseComponent implements ScriptingComponent {
     @Override
     public void onMessage(Message message) {
         // relay the message to his scriptFile
-        Class<?>[] parameterTypes = {Message.class};
         Object[] arguments = new Object[1];
         arguments[0] = message;
-        this.script.callSpecificVoidFunction("onMessage", parameterTypes, arguments);
+        this.script.callSpecificVoidFunction("onMessage", ON_MESSAGE_PARAMETERS, arguments);
     }
 
     @Override
@@ -62,7 +65,17 @@ public class Script extends BaseComponent implements ScriptingComponent {
 
     @Override
     public void update() {
+        ScriptUpdateEvent event = Events.ENABLED ? new ScriptUpdateEvent() : null;
+        if(event != null)
+            event.begin();
+
         this.script.callSpecificVoidFunction("update", null, null);
+
+        if(event != null && event.shouldCommit()) {
+            event.script = this.script.getName();
+            event.entity = this.getEntity() != null ? this.getEntity().getName() : null;
+            event.commit();
+        }
     }
 
     @Override
@@ -3,17 +3,31 @@ package Engine.System.Scripting;
 import Engine.Main.Entity;
 import Engine.System.BaseSystem;
 import Engine.System.Component.Component;
+import Engine.System.ComponentIndex;
 
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author Grégoire Boiron
  */
 public class ScriptingSystem extends BaseSystem {
 
-    private List<Entity> notStartedEntities;
-    private List<Entity> startedEntities;
+    /**
+     * Script components whose start method has already been called.
+     */
+    private Set<Component> startedComponents;
+
+    private final ComponentIndex.Visitor startVisitor = (entity, component) -> {
+        // Call start method the first time a script component is met
+        if(this.startedComponents.add(component)) {
+            component.initialize();
+        }
+    };
+
+    private final ComponentIndex.Visitor updateVisitor = (entity, component) -> component.apply();
 
     public ScriptingSystem() {
 
@@ -25,44 +39,44 @@ public class ScriptingSystem extends BaseSystem {
         return ScriptingComponent.class;
     }
 
+    /**
+     * Scripts can reach any component of any entity: the system never runs concurrently with another one.
+     */
+    @Override
+    public List<Class<? extends Component>> getReadComponents() {
+        return Collections.singletonList(Component.class);
+    }
+
+    @Override
+    public List<Class<? extends Component>> getWrittenComponents() {
+        return Collections.singletonList(Component.class);
+    }
+
     @Override
     public void initialize() throws Exception {
-        this.notStartedEntities = new LinkedList<>();
-        this.startedEntities = new LinkedList<>();
+        this.startedComponents = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * A script added again is started again.
+     */
+    @Override
+    protected void onComponentRemoved(Entity entity, Component component) {
+        if(this.startedComponents != null)
+            this.startedComponents.remove(component);
     }
 
     @Override
     public void iterate(List<Entity> entities) {
-        // initialize the first time list
-        if(this.notStartedEntities.isEmpty() && this.startedEntities.isEmpty()) {
-            this.notStartedEntities = new LinkedList<>(entities);
-
-            // Call start method for each component script
-            for(Entity entity : this.notStartedEntities) {
-                // For the script components
-                for (Component component : getLocalSystemComponentsFor(entity)) {
-                    // Active them
-                    component.initialize();
-                }
-
-                // Change the current entity
-                this.startedEntities.add(entity);
-            }
-            this.notStartedEntities.removeAll(this.notStartedEntities);
-        }
+        // Start the scripts added since the last iteration
+        getComponentIndex().forEach(this.startVisitor);
 
-        // For all the entity in the game
-        for(Entity entity : this.startedEntities) {
-            // For the audio components
-            for (Component component : getLocalSystemComponentsFor(entity)) {
-                component.apply();
-            }
-        }
+        // Then update all the script components
+        getComponentIndex().forEach(this.updateVisitor);
     }
 
     @Override
     public void cleanUp() {
-        this.startedEntities = null;
-        this.notStartedEntities = null;
+        this.startedComponents = null;
     }
 }
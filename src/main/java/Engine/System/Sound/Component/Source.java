@@ -1,11 +1,12 @@
 package Engine.System.Sound.Component;
 
-import Engine.GameEngine;
 import Engine.Main.Entity;
 import Engine.Main.Sound;
 import Engine.System.Component.BaseComponent;
 import Engine.System.Component.Messaging.Message;
+import Engine.System.Component.Messaging.Opcodes;
 import Engine.System.Sound.SoundComponent;
+import Engine.World;
 import org.joml.Vector3f;
 import org.lwjgl.openal.AL10;
 
@@ -22,7 +23,6 @@ public class Source extends BaseComponent implements SoundComponent {
     private float pitch;
     private boolean isLooping;
     private Vector3f velocity;
-    private Vector3f position;
 
     private Sound sound;
 
@@ -35,7 +35,6 @@ public class Source extends BaseComponent implements SoundComponent {
         this.pitch = 0.5f;
         this.isLooping = false;
         this.velocity = new Vector3f(0,0,0);
-        this.position = entity.getTransform().getPosition();
     }
 
     public void setVelocity(final Vector3f velocity) {
@@ -94,8 +93,8 @@ public class Source extends BaseComponent implements SoundComponent {
         this.setVolume(this.volume);
         // Set the pitch
         this.setPitch(this.pitch);
-        // Set the position
-        this.setPosition(this.position);
+        // Set the position, read now: the transform only gives a view refreshed on each read
+        this.setPosition(getEntity().getTransform().getPosition());
         // Stop all the current songs
         //stop();
     }
@@ -103,39 +102,36 @@ public class Source extends BaseComponent implements SoundComponent {
     @Override
     public void onMessage(Message message) {
         try {
-            switch (message.getInstruction()) {
-                case "play":
+            switch (message.getOpcode()) {
+                case Opcodes.PLAY:
                     play();
                     break;
-                case "stop":
+                case Opcodes.STOP:
                     stop();
                     break;
-                case "pause":
+                case Opcodes.PAUSE:
                     pause();
                     break;
-                case "setLooping":
-                    setLooping((boolean)message.getData());
+                case Opcodes.SET_LOOPING:
+                    setLooping(message.getBoolean());
                     break;
-                case "setVelocity":
-                    setLooping((boolean)message.getData());
+                case Opcodes.SET_VELOCITY:
+                    setVelocity(message.getX(), message.getY(), message.getZ());
                     break;
-                case "setVolume":
-                    setVolume((float)message.getData());
+                case Opcodes.SET_VOLUME:
+                    setVolume(message.getFloat());
                     break;
-                case "setPitch":
-                    setPitch((float)message.getData());
+                case Opcodes.SET_PITCH:
+                    setPitch(message.getFloat());
                     break;
-                case "setPosition":
-                    setPosition((Vector3f)message.getData());
+                case Opcodes.SET_POSITION:
+                    setPosition(message.getX(), message.getY(), message.getZ());
                     break;
-                case "isPlaying":
+                case Opcodes.IS_PLAYING:
                     System.out.println("Received ! Send again !");
                     // Create a new message to send the return value to the scriptingSystem
                     Object[] returnValues = {Boolean.class, isPlaying()};
-                    Message<Object[]> returnMessage =
-                            new Message<>(getID(), message.getSender(), "return", returnValues);
-                    // Send it
-                    GameEngine.messageQueue.add(returnMessage);
+                    World.current().getMessageQueue().reply(message, returnValues);
                     break;
                 default:
                     System.out.println(message.getInstruction() + ": Corresponding method can't be found");
@@ -148,7 +144,7 @@ public class Source extends BaseComponent implements SoundComponent {
     }
 
     public void play() {
-        AL10.alSourcei(sourceId, AL10.AL_BUFFER, this.sound.getUniqueID());
+        AL10.alSourcei(sourceId, AL10.AL_BUFFER, this.sound.getBufferId());
         continuePlaying();
     }
 
@@ -3,10 +3,13 @@ package Engine.System.Sound;
 import Engine.Main.Entity;
 import Engine.System.BaseSystem;
 import Engine.System.Component.Component;
+import Engine.System.Component.Transform;
+import Engine.System.ComponentIndex;
 import org.lwjgl.openal.AL;
 import org.lwjgl.openal.AL10;
 import org.lwjgl.openal.ALC;
 
+import java.util.Arrays;
 import java.util.List;
 
 import static org.lwjgl.openal.ALC10.*;
@@ -20,6 +23,14 @@ public class SoundSystem extends BaseSystem {
     private long device;
     private long context;
 
+    private final ComponentIndex.Visitor soundVisitor = (entity, component) -> {
+        // Active them
+        component.initialize();
+        if(component.isActive()) {
+            component.apply();
+        }
+    };
+
     public SoundSystem() {
         final String defaultDeviceName = alcGetString(0, ALC_DEFAULT_DEVICE_SPECIFIER);
         device = alcOpenDevice(defaultDeviceName);
@@ -36,6 +47,14 @@ public class SoundSystem extends BaseSystem {
         return SoundComponent.class;
     }
 
+    /**
+     * Sources follow the position of their entity.
+     */
+    @Override
+    public List<Class<? extends Component>> getReadComponents() {
+        return Arrays.asList(SoundComponent.class, Transform.class);
+    }
+
     @Override
     public void initialize() throws Exception {
         this.setListenerData(0,0,0);
@@ -49,17 +68,8 @@ public class SoundSystem extends BaseSystem {
 
     @Override
     public void iterate(List<Entity> entities) {
-        // For all the entity in the game
-        for(Entity entity : entities) {
-            // For the audio components
-            for (Component component : getLocalSystemComponentsFor(entity)) {
-                // Active them
-                component.initialize();
-                if(component.isActive()) {
-                    component.apply();
-                }
-            }
-        }
+        // Only walk the audio components of the game
+        getComponentIndex().forEach(this.soundVisitor);
     }
 
     @Override
@@ -0,0 +1,393 @@
+package Engine.System;
+
+import Engine.Helper.Events.Events;
+import Engine.Helper.Events.SystemIterateEvent;
+import Engine.Helper.Profiler;
+import Engine.Main.Entity;
+import Engine.System.Component.Component;
+import Engine.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a list of systems, concurrently when they can. Systems are grouped in stages from the component types
+ * they read and write: two systems conflict when one of them writes a type the other one reads or writes.
+ * A system is placed in the stage following the last stage holding a conflicting system declared before it,
+ * so conflicting systems still run in their declaration order. The systems of a stage run on a ForkJoinPool.
+ *
+ * Systems may be updated less often than the scheduler runs, see GameSystem.setUpdatesPerSecond. A system updated
+ * every n runs is given n time steps at once. Unless their phase is set, such systems are spread over the runs so
+ * that as few of them as possible are updated in the same run.
+ */
+public class SystemScheduler {
+
+    /**
+     * Pool shared by the schedulers of every world. The common pool is not used: its threads forget their
+     * thread locals after each task, so the world of a task would be bound again, and allocated for, every time.
+     */
+    private static final ForkJoinPool SHARED_POOL = new ForkJoinPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+    /**
+     * Number of runs over which the systems are spread. Periods with a larger common multiple are spread over
+     * the first runs only.
+     */
+    private static final int MAX_HYPERPERIOD = 1 << 12;
+
+    private final List<List<GameSystem>> stages = new ArrayList<>();
+
+    /**
+     * Profiler sections of the systems, stage by stage, or null if the systems are not profiled.
+     */
+    private volatile List<List<Profiler.Section>> sections;
+
+    private volatile Profiler profiler;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Duration of every stage during the last run, in nanoseconds.
+     */
+    private long[] stageTimings;
+
+    /**
+     * Task of every system, stage by stage. Tasks are reinitialized and submitted again on every run, so the
+     * scheduler does not allocate once the systems are set.
+     */
+    private final List<List<SystemTask>> tasks = new ArrayList<>();
+
+    private final class SystemTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int stageIndex;
+
+        private final int systemIndex;
+
+        // World of the caller: pool threads are shared between worlds.
+        private World world;
+
+        private boolean submitted;
+
+        // The system is updated on the runs r such that r % period == offset.
+        private int period = 1;
+
+        private int offset = 0;
+
+        // Rate and phase the period and offset were computed from.
+        private int updatesPerSecond = 0;
+
+        private int phase = -1;
+
+        private final Runnable body;
+
+        private SystemTask(int stageIndex, int systemIndex) {
+            this.stageIndex = stageIndex;
+            this.systemIndex = systemIndex;
+            this.body = () -> iterate(this.stageIndex, this.systemIndex);
+        }
+
+        @Override
+        protected void compute() {
+            this.world.run(this.body);
+        }
+    }
+
+    private List<Entity> entities;
+
+    private float timeStep;
+
+    // Time step the periods were computed for.
+    private float scheduledTimeStep = 0;
+
+    // Number of runs so far.
+    private long runs = 0;
+
+    public SystemScheduler(List<GameSystem> systems) {
+        this(systems, SHARED_POOL);
+    }
+
+    public SystemScheduler(List<GameSystem> systems, ForkJoinPool pool) {
+        this.pool = pool;
+
+        List<Integer> systemStages = new ArrayList<>();
+        for(int i = 0; i < systems.size(); i++) {
+            int stage = 0;
+            for(int j = 0; j < i; j++) {
+                if(conflict(systems.get(i), systems.get(j))) {
+                    stage = Math.max(stage, systemStages.get(j) + 1);
+                }
+            }
+            systemStages.add(stage);
+
+            while(this.stages.size() <= stage) {
+                this.stages.add(new ArrayList<>());
+            }
+            this.stages.get(stage).add(systems.get(i));
+        }
+
+        this.stageTimings = new long[this.stages.size()];
+
+        for(int stage = 0; stage < this.stages.size(); stage++) {
+            List<SystemTask> stageTasks = new ArrayList<>();
+            for(int system = 0; system < this.stages.get(stage).size(); system++) {
+                stageTasks.add(new SystemTask(stage, system));
+            }
+            this.tasks.add(stageTasks);
+        }
+    }
+
+    /**
+     * Run every active system due for an update, stage after stage.
+     * @param entities entities registered in the engine.
+     * @param timeStep duration of the update, in seconds.
+     */
+    public void run(List<Entity> entities, float timeStep) {
+        this.entities = entities;
+        this.timeStep = timeStep;
+
+        if(timeStep != this.scheduledTimeStep || isScheduleOutdated()) {
+            schedule(timeStep);
+        }
+
+        for(int stage = 0; stage < this.stages.size(); stage++) {
+            long start = System.nanoTime();
+            runStage(stage);
+            this.stageTimings[stage] = System.nanoTime() - start;
+        }
+
+        this.entities = null;
+        this.runs++;
+    }
+
+    /**
+     * @param system a system of the scheduler.
+     * @return the number of runs between two updates of the system, as of the last run.
+     */
+    public int getPeriod(GameSystem system) {
+        SystemTask task = getTask(system);
+        return task == null ? 1 : task.period;
+    }
+
+    /**
+     * @param system a system of the scheduler.
+     * @return the run, between 0 and the period of the system, on which it is updated, as of the last run.
+     */
+    public int getOffset(GameSystem system) {
+        SystemTask task = getTask(system);
+        return task == null ? 0 : task.offset;
+    }
+
+    private SystemTask getTask(GameSystem system) {
+        for(int stage = 0; stage < this.stages.size(); stage++) {
+            int index = this.stages.get(stage).indexOf(system);
+            if(index >= 0)
+                return this.tasks.get(stage).get(index);
+        }
+        return null;
+    }
+
+    private boolean isScheduleOutdated() {
+        for(int stage = 0; stage < this.stages.size(); stage++) {
+            List<GameSystem> systems = this.stages.get(stage);
+            List<SystemTask> stageTasks = this.tasks.get(stage);
+            for(int i = 0; i < systems.size(); i++) {
+                if(systems.get(i).getUpdatesPerSecond() != stageTasks.get(i).updatesPerSecond
+                        || systems.get(i).getPhase() != stageTasks.get(i).phase)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compute the period of every system from its rate, then its offset: systems with a phase keep it, the
+     * others are placed, shortest periods first, on the runs updating the fewest systems.
+     * @param timeStep duration of a run, in seconds.
+     */
+    private void schedule(float timeStep) {
+        List<SystemTask> allTasks = new ArrayList<>();
+        long hyperperiod = 1;
+        for(int stage = 0; stage < this.stages.size(); stage++) {
+            List<GameSystem> systems = this.stages.get(stage);
+            for(int i = 0; i < systems.size(); i++) {
+                SystemTask task = this.tasks.get(stage).get(i);
+                task.updatesPerSecond = systems.get(i).getUpdatesPerSecond();
+                task.phase = systems.get(i).getPhase();
+                task.period = task.updatesPerSecond <= 0 ? 1
+                        : Math.max(1, Math.round(1 / (timeStep * task.updatesPerSecond)));
+                allTasks.add(task);
+
+                hyperperiod = Math.min(MAX_HYPERPERIOD, lcm(hyperperiod, task.period));
+            }
+        }
+
+        int[] load = new int[(int) hyperperiod];
+        List<SystemTask> spread = new ArrayList<>();
+        for(SystemTask task : allTasks) {
+            if(task.period == 1 || task.phase >= 0) {
+                task.offset = Math.max(0, task.phase) % task.period;
+                addLoad(load, task);
+            } else {
+                spread.add(task);
+            }
+        }
+
+        spread.sort((first, second) -> Integer.compare(first.period, second.period));
+        for(SystemTask task : spread) {
+            int bestOffset = 0;
+            int bestLoad = Integer.MAX_VALUE;
+            for(int offset = 0; offset < task.period; offset++) {
+                int maxLoad = 0;
+                for(int run = offset; run < load.length; run += task.period) {
+                    maxLoad = Math.max(maxLoad, load[run]);
+                }
+                if(maxLoad < bestLoad) {
+                    bestLoad = maxLoad;
+                    bestOffset = offset;
+                }
+            }
+            task.offset = bestOffset;
+            addLoad(load, task);
+        }
+
+        this.scheduledTimeStep = timeStep;
+    }
+
+    private static void addLoad(int[] load, SystemTask task) {
+        for(int run = task.offset; run < load.length; run += task.period) {
+            load[run]++;
+        }
+    }
+
+    private static long lcm(long first, long second) {
+        long a = first;
+        long b = second;
+        while(b != 0) {
+            long remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return first / a * second;
+    }
+
+    private boolean isDue(int stageIndex, int systemIndex) {
+        SystemTask task = this.tasks.get(stageIndex).get(systemIndex);
+        return this.runs % task.period == task.offset;
+    }
+
+    /**
+     * Record the time spent by every system in a section of the profiler named after its class.
+     * @param profiler profiler to record in, or null to stop profiling.
+     */
+    public void setProfiler(Profiler profiler) {
+        if(profiler == null) {
+            this.profiler = null;
+            this.sections = null;
+            return;
+        }
+
+        List<List<Profiler.Section>> sections = new ArrayList<>();
+        for(List<GameSystem> stage : this.stages) {
+            List<Profiler.Section> stageSections = new ArrayList<>();
+            for(GameSystem system : stage) {
+                stageSections.add(profiler.getSection(system.getName()));
+            }
+            sections.add(stageSections);
+        }
+        this.sections = sections;
+        this.profiler = profiler;
+    }
+
+    /**
+     * @return the systems grouped by stage. Systems of a same stage may run concurrently.
+     */
+    public List<List<GameSystem>> getStages() {
+        return this.stages;
+    }
+
+    /**
+     * @return the duration of every stage during the last run, in nanoseconds.
+     */
+    public long[] getStageTimings() {
+        return this.stageTimings;
+    }
+
+    /**
+     * @param first a system.
+     * @param second another system.
+     * @return true if one of the systems writes a component type the other one reads or writes.
+     */
+    public static boolean conflict(GameSystem first, GameSystem second) {
+        return writesAny(first, second.getReadComponents()) || writesAny(first, second.getWrittenComponents())
+                || writesAny(second, first.getReadComponents());
+    }
+
+    private static boolean writesAny(GameSystem system, List<Class<? extends Component>> types) {
+        for(Class<? extends Component> written : system.getWrittenComponents()) {
+            for(Class<? extends Component> type : types) {
+                // World.checkComponent keeps components to a single system interface: unrelated types do not overlap.
+                if(written.isAssignableFrom(type) || type.isAssignableFrom(written))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private void runStage(int stageIndex) {
+        List<GameSystem> stage = this.stages.get(stageIndex);
+        int single = -1;
+        int activeCount = 0;
+        for(int i = 0; i < stage.size(); i++) {
+            if(stage.get(i).isActive() && isDue(stageIndex, i)) {
+                single = i;
+                activeCount++;
+            }
+        }
+
+        if(activeCount == 1) {
+            // No need to pay for the pool.
+            iterate(stageIndex, single);
+        } else if(activeCount > 1) {
+            // Pool threads are shared between worlds: each task runs for the world of the caller.
+            World world = World.current();
+            List<SystemTask> stageTasks = this.tasks.get(stageIndex);
+            for(int i = 0; i < stage.size(); i++) {
+                SystemTask task = stageTasks.get(i);
+                task.submitted = stage.get(i).isActive() && isDue(stageIndex, i);
+                if(task.submitted) {
+                    task.reinitialize();
+                    task.world = world;
+                    this.pool.execute(task);
+                }
+            }
+            for(int i = 0; i < stageTasks.size(); i++) {
+                if(stageTasks.get(i).submitted)
+                    stageTasks.get(i).join();
+            }
+        }
+    }
+
+    private void iterate(int stageIndex, int systemIndex) {
+        Profiler profiler = this.profiler;
+        List<List<Profiler.Section>> sections = this.sections;
+        GameSystem system = this.stages.get(stageIndex).get(systemIndex);
+        SystemIterateEvent event = Events.ENABLED ? new SystemIterateEvent() : null;
+        if(event != null)
+            event.begin();
+        long start = profiler != null ? profiler.start() : 0;
+
+        // A system updated every n runs simulates the time of the n runs at once.
+        system.iterate(this.entities, this.timeStep * this.tasks.get(stageIndex).get(systemIndex).period);
+
+        if(profiler != null && sections != null)
+            profiler.stop(sections.get(stageIndex).get(systemIndex), start);
+        if(event != null && event.shouldCommit()) {
+            event.system = system.getName();
+            event.commit();
+        }
+    }
+}
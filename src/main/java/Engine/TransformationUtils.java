@@ -1,6 +1,8 @@
 package Engine;
 
 import Engine.Main.Entity;
+import Engine.System.Component.Transform;
+import Engine.System.Component.TransformStore;
 import Engine.System.Graphics.Camera;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
@@ -9,10 +11,19 @@ import org.joml.Vector3f;
  * @author : Matthieu Le Boucher
  */
 public class TransformationUtils {
+
+    // Scratch rotation of the camera: views may be computed from the game loop and the render thread.
+    private static final ThreadLocal<Vector3f> ROTATION = ThreadLocal.withInitial(Vector3f::new);
+
     public static Matrix4f getWorldMatrix(Vector3f offset, Vector3f rotation, Vector3f scale) {
-        Matrix4f worldMatrix = new Matrix4f();
+        return getWorldMatrix(offset, rotation, scale, new Matrix4f());
+    }
 
-        worldMatrix.translate(offset).
+    /**
+     * Computes a world matrix into a preallocated matrix.
+     */
+    public static Matrix4f getWorldMatrix(Vector3f offset, Vector3f rotation, Vector3f scale, Matrix4f worldMatrix) {
+        worldMatrix.identity().translate(offset).
                 rotateX((float) Math.toRadians(rotation.x)).
                 rotateY((float) Math.toRadians(rotation.y)).
                 rotateZ((float) Math.toRadians(rotation.z)).
@@ -22,33 +33,69 @@ public class TransformationUtils {
     }
 
     public static Matrix4f getViewMatrix(Camera camera) {
-        Matrix4f viewMatrix = new Matrix4f();
+        return getViewMatrix(camera, new Matrix4f());
+    }
+
+    /**
+     * Computes the view matrix of a camera into a preallocated matrix.
+     */
+    public static Matrix4f getViewMatrix(Camera camera, Matrix4f viewMatrix) {
+        Transform transform = camera.getTransform();
+        transform.getStore().updateWorldMatrix(transform.getSlot());
+
+        return getViewMatrix(camera, transform.getStore().getWorldMatrices(), viewMatrix);
+    }
+
+    /**
+     * Computes the view matrix of a camera from given world matrices, with its current rotation.
+     */
+    public static Matrix4f getViewMatrix(Camera camera, float[] worldMatrices, Matrix4f viewMatrix) {
+        return getViewMatrix(camera, worldMatrices, 1, viewMatrix);
+    }
 
-        Vector3f cameraPos = camera.getTransform().getPosition();
-        Vector3f rotation = camera.getTransform().getRotation();
+    /**
+     * Computes the view matrix of a camera from given world matrices, e.g. interpolated ones.
+     * The camera looks from its world position. Its own rotation is applied after the orientation of its parent,
+     * if any, so that a camera attached to another entity follows it and turns with it. The scale of the parent
+     * is left out.
+     * @param alpha weight of the current rotation of the camera against the one saved before the last step, as
+     *              used to interpolate the world matrices.
+     */
+    public static Matrix4f getViewMatrix(Camera camera, float[] worldMatrices, float alpha, Matrix4f viewMatrix) {
+        Transform transform = camera.getTransform();
+        TransformStore store = transform.getStore();
+        Vector3f rotation = store.interpolateRotation(transform.getSlot(), alpha, ROTATION.get());
+        int matrixOffset = transform.getSlot() * TransformStore.MATRIX_STRIDE;
+        int parent = store.getParent(transform.getSlot());
 
-        viewMatrix.identity();
+        if(parent == TransformStore.NO_PARENT) {
+            viewMatrix.identity();
+        } else {
+            // Inverse of the rotation of the parent.
+            viewMatrix.set(worldMatrices, parent * TransformStore.MATRIX_STRIDE)
+                    .setTranslation(0, 0, 0)
+                    .normalize3x3()
+                    .invertAffineUnitScale();
+        }
 
-        viewMatrix.rotate((float) Math.toRadians(rotation.x), new Vector3f(1, 0, 0))
-                .rotate((float) Math.toRadians(rotation.y), new Vector3f(0, 1, 0));
+        viewMatrix.translate(-worldMatrices[matrixOffset + 12], -worldMatrices[matrixOffset + 13],
+                -worldMatrices[matrixOffset + 14]);
 
-        viewMatrix.translate(-cameraPos.x, -cameraPos.y, -cameraPos.z);
+        viewMatrix.rotateLocalY((float) Math.toRadians(rotation.y))
+                .rotateLocalX((float) Math.toRadians(rotation.x));
 
         return viewMatrix;
     }
 
     public static Matrix4f getModelViewMatrix(Entity entity, Matrix4f viewMatrix) {
-        Matrix4f modelViewMatrix = new Matrix4f();
-        Vector3f rotation = entity.getTransform().getRotation();
-
-        modelViewMatrix.identity().translate(entity.getTransform().getPosition()).
-                rotateX((float) Math.toRadians(-rotation.x)).
-                rotateY((float) Math.toRadians(-rotation.y)).
-                rotateZ((float) Math.toRadians(-rotation.z)).
-                scale(entity.getTransform().getScale());
-
-        Matrix4f currentView = new Matrix4f(viewMatrix);
+        return getModelViewMatrix(entity, viewMatrix, new Matrix4f());
+    }
 
-        return currentView.mul(modelViewMatrix);
+    /**
+     * Computes the model-view matrix of an entity into a preallocated matrix.
+     * The world matrix of the entity is cached by its transform and only recomputed when it or its ancestors moved.
+     */
+    public static Matrix4f getModelViewMatrix(Entity entity, Matrix4f viewMatrix, Matrix4f modelViewMatrix) {
+        return entity.getTransform().getWorldMatrix(modelViewMatrix).mulLocal(viewMatrix);
     }
 }
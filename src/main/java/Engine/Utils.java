@@ -110,7 +110,7 @@ public class Utils {
                         camera.setName(temp[1].replaceAll("\"", "").replaceAll(",", ""));
                         break;
                     case "Script":
-                        List<ScriptFile> scripts = gameEngine.metadataManager.getScriptFile();
+                        List<ScriptFile> scripts = gameEngine.getWorld().getMetadataManager().getScriptFile();
                         for(ScriptFile currentScript : scripts) {
                             if(currentScript.getName().equals(temp[1].replaceAll("\"","").replaceAll(",",""))) {
                                 camera.addComponent(new Script(camera, currentScript));
@@ -279,7 +279,7 @@ public class Utils {
                     }
                     break;
                 case "Material":
-                    List<Material> materials = gameEngine.metadataManager.getMaterials();
+                    List<Material> materials = gameEngine.getWorld().getMetadataManager().getMaterials();
                     for(Material currentMaterial : materials) {
                         if(currentMaterial.getTextureName().equals(temp[1].replaceAll("\"","").replaceAll(",",""))) {
                             component.setMaterial(currentMaterial);
@@ -311,7 +311,7 @@ public class Utils {
     public static List<String> readAllLines(String fileName) throws Exception {
         List<String> list = new ArrayList<>();
 
-        try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(Utils.class.getClass().getResourceAsStream(fileName)))) {
+        try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(Utils.class.getResourceAsStream(fileName)))) {
             String line;
             while ((line = bufferedReader.readLine()) != null)
                 list.add(line);
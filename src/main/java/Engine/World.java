@@ -0,0 +1,307 @@
+package Engine;
+
+import Engine.Helper.HandleAllocator;
+import Engine.Helper.Profiler;
+import Engine.Main.Entity;
+import Engine.Managers.ArchetypeManager;
+import Engine.Managers.ComponentManager;
+import Engine.Managers.MetadataManager;
+import Engine.System.Component.Component;
+import Engine.System.Component.Messaging.MessageQueue;
+import Engine.System.Component.TransformStore;
+import Engine.System.GameSystem;
+import Engine.System.Physics.PhysicsSystem;
+import Engine.System.SystemScheduler;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Everything a simulation owns: its entities and components, its message queue, its command buffer, its
+ * transforms and its systems. Several worlds can live in the same JVM and be updated side by side on a pool of
+ * threads. Assets such as materials, textures and sounds are immutable and can be shared by several worlds.
+ *
+ * Code running for a world finds it through World.current(): the thread updating a world is bound to it for
+ * the duration of the update, and code setting a world up binds it first. Threads that are not bound fail, unless
+ * an application with a single world, e.g. the editor and its user interface thread, makes it the default world.
+ */
+public class World {
+
+    private static final ThreadLocal<World> current = new ThreadLocal<>();
+
+    // World of the threads that are not bound, in single-world mode.
+    private static volatile World defaultWorld;
+
+    private final HandleAllocator entityHandles = new HandleAllocator();
+
+    private final HandleAllocator componentHandles = new HandleAllocator();
+
+    private final TransformStore transformStore = new TransformStore();
+
+    private final ArchetypeManager archetypeManager = new ArchetypeManager();
+
+    private final ComponentManager componentManager = new ComponentManager();
+
+    private final MetadataManager metadataManager;
+
+    private final MessageQueue messageQueue;
+
+    private final EntityCommandBuffer commandBuffer = new EntityCommandBuffer();
+
+    private final Profiler profiler = new Profiler();
+
+    private final Profiler.Section dispatchSection = this.profiler.getSection("MessageQueue.dispatch");
+
+    private final Profiler.Section playbackSection = this.profiler.getSection("EntityCommandBuffer.playback");
+
+    /**
+     * Systems of the world, in their fixed order: graphics, input, physics, logic, sound, scripting.
+     */
+    private List<GameSystem> systems = Collections.emptyList();
+
+    /**
+     * Runs the systems of the update: logic, sound and scripting, then physics.
+     */
+    private SystemScheduler updateScheduler;
+
+    public World() {
+        this.metadataManager = new MetadataManager(this.archetypeManager, this.componentManager);
+        this.messageQueue = new MessageQueue(this.componentManager);
+    }
+
+    /**
+     * @return the world bound to the current thread, or the default world if none is bound.
+     * @throws IllegalStateException if no world is bound and there is no default world.
+     */
+    public static World current() {
+        World world = current.get();
+        if(world == null)
+            world = defaultWorld;
+        if(world == null)
+            throw new IllegalStateException("No world is bound to the thread " + Thread.currentThread().getName()
+                    + ": bind one, or set a default world in single-world mode.");
+        return world;
+    }
+
+    /**
+     * Single-world mode: threads that are not bound to any world, e.g. a user interface thread, use the given one.
+     * Applications running several worlds must not set it, so that a forgotten binding is caught.
+     * @param world the default world, or null to leave single-world mode.
+     */
+    public static void setDefault(World world) {
+        defaultWorld = world;
+    }
+
+    /**
+     * Bind the world to the current thread: objects created and systems run from now on belong to it.
+     * @return the world previously bound to the thread, or null.
+     */
+    public World bind() {
+        World previous = current.get();
+        current.set(this);
+        return previous;
+    }
+
+    /**
+     * Undo a binding: the current thread goes back to the world it was bound to before.
+     * @param previous world returned by bind, or null.
+     */
+    public static void unbind(World previous) {
+        if(previous == null) {
+            current.remove();
+        } else {
+            current.set(previous);
+        }
+    }
+
+    /**
+     * Run a task with the world bound to the current thread, then restore the previous binding.
+     * @param task task to run.
+     */
+    public void run(Runnable task) {
+        World previous = bind();
+        try {
+            task.run();
+        } finally {
+            unbind(previous);
+        }
+    }
+
+    /**
+     * Give the systems of the world. Must be called once, before the world is updated.
+     * @param systems systems in their fixed order: graphics, input, physics, logic, sound, scripting.
+     */
+    public void setSystems(List<GameSystem> systems) {
+        this.systems = systems;
+
+        List<GameSystem> updateSystems = new LinkedList<>(systems.subList(3, systems.size()));
+        updateSystems.add(systems.get(2));
+        this.updateScheduler = new SystemScheduler(updateSystems);
+        this.updateScheduler.setProfiler(this.profiler);
+    }
+
+    /**
+     * Initialize the simulation systems: physics, logic, sound and scripting.
+     * Graphics and input are initialized by the engine, which owns the window.
+     * @throws Exception if a system could not be initialized.
+     */
+    public void initializeSystems() throws Exception {
+        World previous = bind();
+        try {
+            for(int i = 2; i < this.systems.size(); i++) {
+                if(this.systems.get(i).isActive()) {
+                    this.systems.get(i).initialize();
+                }
+            }
+        } finally {
+            unbind(previous);
+        }
+    }
+
+    /**
+     * Run one update of the simulation systems, deliver the messages, then apply the structural changes.
+     * @param timeStep duration of the update, in seconds.
+     */
+    public void update(float timeStep) {
+        World previous = bind();
+        try {
+            this.updateScheduler.run(this.metadataManager.getEntities(), timeStep);
+
+            long start = this.profiler.start();
+            this.messageQueue.dispatch();
+            this.profiler.stop(this.dispatchSection, start);
+        } finally {
+            unbind(previous);
+        }
+    }
+
+    /**
+     * Apply the structural changes recorded since the last call. No system may be iterating.
+     */
+    public void playbackCommands() {
+        World previous = bind();
+        try {
+            long start = this.profiler.start();
+            this.commandBuffer.playback(this);
+            this.profiler.stop(this.playbackSection, start);
+        } finally {
+            unbind(previous);
+        }
+    }
+
+    /**
+     * @return the scheduler of the simulation systems, e.g. to read the period each system is updated at.
+     */
+    public SystemScheduler getUpdateScheduler() {
+        return this.updateScheduler;
+    }
+
+    /**
+     * @return the duration of every stage of the last update, in nanoseconds.
+     */
+    public long[] getStageTimings() {
+        return this.updateScheduler.getStageTimings();
+    }
+
+    void registerEntity(Entity entity) {
+        this.metadataManager.registerEntity(entity);
+        getPhysicsSystem().addEntity(entity);
+    }
+
+    void unregisterEntity(Entity entity) {
+        this.metadataManager.removeEntity(entity);
+        getPhysicsSystem().removeEntity(entity);
+    }
+
+    void attachComponent(Entity entity, Component component) {
+        entity.addComponent(component);
+
+        if(this.metadataManager.getEntity(entity.getUniqueID()) == entity) {
+            this.componentManager.registerComponent(component);
+            if(getPhysicsSystem().getRecognizedInterface().isInstance(component))
+                getPhysicsSystem().addComponent(component);
+        }
+    }
+
+    /**
+     * Check that a component is handled by a single system of the world. The scheduler tells conflicting systems
+     * apart by the interfaces they recognize, so a component implementing two of them would be updated by both
+     * systems in parallel.
+     * @param component component about to be added to an entity of the world.
+     * @throws IllegalArgumentException if the component implements the interfaces of several systems.
+     */
+    public void checkComponent(Component component) {
+        Class<? extends Component> recognized = null;
+        for(GameSystem system : this.systems) {
+            Class<? extends Component> type = system.getRecognizedInterface();
+            if(type == recognized || !type.isInstance(component))
+                continue;
+            if(recognized != null)
+                throw new IllegalArgumentException(component.getClass().getSimpleName() + " implements both "
+                        + recognized.getSimpleName() + " and " + type.getSimpleName()
+                        + ": a component can only belong to one system.");
+            recognized = type;
+        }
+    }
+
+    void detachComponent(Entity entity, Component component) {
+        if(!entity.getComponents().contains(component))
+            return;
+
+        entity.removeComponent(component);
+
+        if(this.metadataManager.getEntity(entity.getUniqueID()) == entity) {
+            if(getPhysicsSystem().getRecognizedInterface().isInstance(component))
+                getPhysicsSystem().removeComponent(component);
+            this.componentManager.removeComponent(component);
+        }
+    }
+
+    public PhysicsSystem getPhysicsSystem() {
+        return (PhysicsSystem) this.systems.get(2);
+    }
+
+    public List<GameSystem> getSystems() {
+        return this.systems;
+    }
+
+    public HandleAllocator getEntityHandles() {
+        return this.entityHandles;
+    }
+
+    public HandleAllocator getComponentHandles() {
+        return this.componentHandles;
+    }
+
+    public TransformStore getTransformStore() {
+        return this.transformStore;
+    }
+
+    public ArchetypeManager getArchetypeManager() {
+        return this.archetypeManager;
+    }
+
+    public ComponentManager getComponentManager() {
+        return this.componentManager;
+    }
+
+    public MetadataManager getMetadataManager() {
+        return this.metadataManager;
+    }
+
+    public MessageQueue getMessageQueue() {
+        return this.messageQueue;
+    }
+
+    public EntityCommandBuffer getCommandBuffer() {
+        return this.commandBuffer;
+    }
+
+    /**
+     * @return the profiler timing the systems, the message dispatch and the structural changes of the world.
+     */
+    public Profiler getProfiler() {
+        return this.profiler;
+    }
+}
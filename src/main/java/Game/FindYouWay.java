@@ -33,6 +33,8 @@ public class FindYouWay {
 
             if(!testParser) {
                 GameEngine gameEngine = new GameEngine("FindYourWay", 800, 600);
+                // Everything created below belongs to the world of the engine.
+                gameEngine.getWorld().bind();
 
                 ScriptFile scriptRotateHealth = new ScriptFile("ScriptRotateHealth");
                 gameEngine.addScript(scriptRotateHealth);
@@ -230,6 +232,8 @@ public class FindYouWay {
             } else {
 
                 GameEngine gameEngine = new GameEngine("FindYourWay", 800, 600);
+                // Everything created below belongs to the world of the engine.
+                gameEngine.getWorld().bind();
 
                 Utils.parser("Game/gameEditor.json", gameEngine);
 
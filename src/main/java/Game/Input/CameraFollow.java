@@ -3,6 +3,7 @@ package Game.Input;
 import Engine.Main.Entity;
 import Engine.System.Component.BaseComponent;
 import Engine.System.Component.Messaging.Message;
+import Engine.System.Component.Messaging.Opcodes;
 import Engine.System.Input.Component.KeyboardListener;
 import Engine.System.Input.Component.MouseListener;
 import Engine.System.Input.InputComponent;
@@ -37,7 +38,7 @@ public class CameraFollow extends BaseComponent implements MouseListener, Keyboa
 
     @Override
     public void onMessage(Message message) {
-        if (message.getInstruction().equals("mouseEvent")) {
+        if (message.getOpcode() == Opcodes.MOUSE_EVENT) {
             MouseInput mouseInput = (MouseInput) message.getData();
 
             // Update camera based on mouse
@@ -47,7 +48,7 @@ public class CameraFollow extends BaseComponent implements MouseListener, Keyboa
             }
         }
 
-        if (message.getInstruction().equals("keyboardEvent")) {
+        if (message.getOpcode() == Opcodes.KEYBOARD_EVENT) {
             Window window = (Window) message.getData();
             Vector3f cameraPositionOffset = new Vector3f();
 
@@ -9,6 +9,7 @@ package Game.Input;
 import Engine.Main.Entity;
 import Engine.System.Component.BaseComponent;
 import Engine.System.Component.Messaging.Message;
+import Engine.System.Component.Messaging.Opcodes;
 import Engine.System.Input.Component.KeyboardListener;
 import Engine.System.Input.Component.MouseListener;
 import Engine.System.Input.InputComponent;
@@ -39,7 +40,7 @@ public class CameraKeyboard extends BaseComponent implements MouseListener, Keyb
 
     @Override
     public void onMessage(Message message) {
-        if (message.getInstruction().equals("mouseEvent")) {
+        if (message.getOpcode() == Opcodes.MOUSE_EVENT) {
             MouseInput mouseInput = (MouseInput) message.getData();
 
             // Update camera based on mouse
@@ -49,7 +50,7 @@ public class CameraKeyboard extends BaseComponent implements MouseListener, Keyb
             }
         }
 
-        if (message.getInstruction().equals("keyboardEvent")) {
+        if (message.getOpcode() == Opcodes.KEYBOARD_EVENT) {
             Window window = (Window) message.getData();
             Vector3f cameraPositionOffset = new Vector3f();
 
@@ -9,6 +9,7 @@ import Engine.Main.Entity;
 import Engine.System.Component.BaseComponent;
 import Engine.System.Component.Component;
 import Engine.System.Component.Messaging.Message;
+import Engine.System.Component.Messaging.Opcodes;
 import Engine.System.Input.Component.KeyboardListener;
 import Engine.System.Input.InputComponent;
 import Engine.System.Physics.Component.BoxRigidBodyComponent;
@@ -59,7 +60,7 @@ public class PlayerKeyboard extends BaseComponent implements KeyboardListener, I
     @Override
     public void onMessage(Message message) {
 
-        if (message.getInstruction().equals("keyboardEvent")) {
+        if (message.getOpcode() == Opcodes.KEYBOARD_EVENT) {
             Window window = (Window) message.getData();
             org.joml.Vector3f playerPositionOffset = new org.joml.Vector3f();
             org.joml.Vector3f playerRotationOffset = new org.joml.Vector3f();
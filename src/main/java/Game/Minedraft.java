@@ -34,6 +34,8 @@ public class Minedraft {
 
             if(!testParser) {
                 GameEngine gameEngine = new GameEngine("Minedraft", 800, 600);
+                // Everything created below belongs to the world of the engine.
+                gameEngine.getWorld().bind();
 
                 // Create a game sound
                 Sound son = new Sound("Test", "./resources/Game/Sounds/sonTest.wav");
@@ -144,6 +146,8 @@ public class Minedraft {
             } else {
 
                 GameEngine gameEngine = new GameEngine("Minedraft", 800, 600);
+                // Everything created below belongs to the world of the engine.
+                gameEngine.getWorld().bind();
 
                 Utils.parser("Game/example.json", gameEngine);
 